@@ -64,7 +64,10 @@ export const useSettingsStore = defineStore("settings", {
       diskUtilPct: undefined,
       npuUsage: undefined,
       ipAddress: undefined,
-      uptime: undefined
+      uptime: undefined,
+      cvMatCount: undefined,
+      cvMatBytes: undefined,
+      droppedFrames: undefined
     },
     currentFieldLayout: {
       field: {
@@ -98,7 +101,10 @@ export const useSettingsStore = defineStore("settings", {
         diskUtilPct: data.diskUtilPct || undefined,
         npuUsage: data.npuUsage || undefined,
         ipAddress: data.ipAddress || undefined,
-        uptime: data.uptime || undefined
+        uptime: data.uptime || undefined,
+        cvMatCount: data.cvMatCount ?? undefined,
+        cvMatBytes: data.cvMatBytes ?? undefined,
+        droppedFrames: data.droppedFrames ?? undefined
       };
     },
     updateGeneralSettingsFromWebsocket(data: WebsocketSettingsUpdate) {
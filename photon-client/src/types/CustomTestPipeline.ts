@@ -1,6 +1,21 @@
 import type {ConfigurablePipelineSettings, PipelineSettings} from "@/types/PipelineTypes.ts";
 import {AprilTagFamily, DefaultPipelineSettings, PipelineType, TargetModel} from "@/types/PipelineTypes.ts";
 
+export enum FeatureDetectionMode {
+    Full = 0,
+    Bucketed = 1
+}
+
+export enum EssentialMatMethod {
+    RANSAC = 0,
+    LMEDS = 1,
+    USAC_DEFAULT = 2,
+    USAC_FAST = 3,
+    USAC_ACCURATE = 4,
+    USAC_PROSAC = 5,
+    USAC_MAGSAC = 6
+}
+
 export interface CustomTestPipelineSettings extends PipelineSettings {
     pipelineType: PipelineType.CustomTest;
 
@@ -9,6 +24,23 @@ export interface CustomTestPipelineSettings extends PipelineSettings {
     imageDifferenceThreshold: number,
     essentialMatProb: number
     essentialMatThreshold: number,
+    featureDetectionMode: FeatureDetectionMode,
+    featureGridRows: number,
+    featureGridCols: number,
+    featuresPerCell: number,
+    maxFeatures: number,
+    replenishFeatures: boolean,
+    featureMaskRadius: number,
+    resetPoseOnTagFix: boolean,
+    keyframeMode: boolean,
+    keyframeMinTrackedRatio: number,
+    essentialMatMethod: EssentialMatMethod,
+    essentialMatMaxIters: number,
+    undistortFeatures: boolean,
+    useImuRotationPrior: boolean,
+    imuCameraRoll: number,
+    imuCameraPitch: number,
+    imuCameraYaw: number,
 
     hammingDist: number;
     numIterations: number;
@@ -18,6 +50,7 @@ export interface CustomTestPipelineSettings extends PipelineSettings {
     refineEdges: boolean;
     debug: boolean;
     threads: number;
+    featureDetectionThreads: number;
     tagFamily: AprilTagFamily;
     doMultiTarget: boolean;
     doSingleTargetAlways: boolean;
@@ -42,6 +75,23 @@ export const DefaultCustomTestPipelineSettings: CustomTestPipelineSettings = {
     imageDifferenceThreshold: 150,
     essentialMatProb: 0.999,
     essentialMatThreshold: 1.,
+    featureDetectionMode: FeatureDetectionMode.Full,
+    featureGridRows: 4,
+    featureGridCols: 4,
+    featuresPerCell: 50,
+    maxFeatures: 1000,
+    replenishFeatures: false,
+    featureMaskRadius: 10,
+    resetPoseOnTagFix: true,
+    keyframeMode: false,
+    keyframeMinTrackedRatio: 0.7,
+    essentialMatMethod: EssentialMatMethod.RANSAC,
+    essentialMatMaxIters: 1000,
+    undistortFeatures: true,
+    useImuRotationPrior: false,
+    imuCameraRoll: 0,
+    imuCameraPitch: 0,
+    imuCameraYaw: 0,
 
 
     hammingDist: 0,
@@ -52,6 +102,7 @@ export const DefaultCustomTestPipelineSettings: CustomTestPipelineSettings = {
     refineEdges: true,
     debug: false,
     threads: 4,
+    featureDetectionThreads: 1,
     tagFamily: AprilTagFamily.Family36h11,
     doMultiTarget: false,
     doSingleTargetAlways: false
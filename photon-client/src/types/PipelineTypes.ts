@@ -40,6 +40,7 @@ export enum TargetModel {
 export interface PipelineSettings {
   offsetRobotOffsetMode: RobotOffsetPointMode;
   streamingFrameDivisor: number;
+  maxProcessingFps: number;
   offsetDualPointBArea: number;
   contourGroupingMode: number;
   hsvValue: WebsocketNumberPair | [number, number];
@@ -86,6 +87,12 @@ export interface PipelineSettings {
 
   cameraAutoWhiteBalance: boolean;
   cameraWhiteBalanceTemp: number;
+
+  roiEnabled: boolean;
+  roiRangeX: WebsocketNumberPair | [number, number];
+  roiRangeY: WebsocketNumberPair | [number, number];
+  dynamicRoiEnabled: boolean;
+  dynamicRoiMarginPercent: number;
 }
 export type ConfigurablePipelineSettings = Partial<
   Omit<
@@ -112,6 +119,7 @@ export const DefaultPipelineSettings: Omit<
 > = {
   offsetRobotOffsetMode: RobotOffsetPointMode.None,
   streamingFrameDivisor: 0,
+  maxProcessingFps: 0,
   offsetDualPointBArea: 0,
   contourGroupingMode: 0,
   hsvValue: { first: 50, second: 255 },
@@ -150,7 +158,12 @@ export const DefaultPipelineSettings: Omit<
   cameraAutoWhiteBalance: false,
   cameraWhiteBalanceTemp: 4000,
   cameraMinExposureRaw: 1,
-  cameraMaxExposureRaw: 2
+  cameraMaxExposureRaw: 2,
+  roiEnabled: false,
+  roiRangeX: { first: 0, second: 100 },
+  roiRangeY: { first: 0, second: 100 },
+  dynamicRoiEnabled: false,
+  dynamicRoiMarginPercent: 50
 };
 
 export interface ReflectivePipelineSettings extends PipelineSettings {
@@ -37,6 +37,9 @@ export interface MetricData {
   npuUsage?: number[];
   ipAddress?: string;
   uptime?: number;
+  cvMatCount?: number;
+  cvMatBytes?: number;
+  droppedFrames?: number;
 }
 
 export enum NetworkConnectionType {
@@ -62,6 +62,18 @@ public class CameraConfiguration {
 
     public int streamIndex = 0; // 0 index means ports [1181, 1182], 1 means [1183, 1184], etc...
 
+    /**
+     * Capture, process and publish frames on separate threads, so they overlap on multi-core
+     * coprocessors at the cost of a thread per stage. Read when the vision module is created.
+     */
+    public boolean pipelinedProcessing = false;
+
+    /** Most frames per second sent to each MJPEG stream client, or 0 or less for no limit */
+    public double streamMaxFps = -1;
+
+    /** Factor to shrink MJPEG stream frames by, on top of the pipeline's stream resolution */
+    public int streamDownscale = 1;
+
     // Ignore the pipes, as we serialize them to their own column to hack around
     // polymorphic lists
     @JsonIgnore public List<CVPipelineSettings> pipelineSettings = new ArrayList<>();
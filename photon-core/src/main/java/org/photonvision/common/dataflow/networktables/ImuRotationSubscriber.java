@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.dataflow.networktables;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.StructSubscriber;
+import java.util.Optional;
+
+/**
+ * Keeps a short history of the robot's orientation, as published by robot code from its gyro, so
+ * that vision code can look up how far the robot turned between two frames.
+ *
+ * <p>Robot code should publish its orientation to {@code /photonvision/imuRotation} as a {@link
+ * Rotation3d} struct every loop. Samples are timestamped by NetworkTables, so no extra time sync is
+ * needed. This is not thread safe, and samples are only pulled in when {@link #getRotation} is
+ * called, so each reader should own its own instance.
+ */
+public class ImuRotationSubscriber implements AutoCloseable {
+    public static final String TOPIC_NAME = "imuRotation";
+
+    private static final double HISTORY_SECONDS = 1.0;
+
+    private final StructSubscriber<Rotation3d> subscriber;
+    private final TimeInterpolatableBuffer<Rotation3d> history =
+            TimeInterpolatableBuffer.createBuffer(HISTORY_SECONDS);
+
+    public ImuRotationSubscriber() {
+        subscriber =
+                NetworkTablesManager.getInstance()
+                        .kRootTable
+                        .getStructTopic(TOPIC_NAME, Rotation3d.struct)
+                        .subscribe(
+                                new Rotation3d(), PubSubOption.sendAll(true), PubSubOption.pollStorage(100));
+    }
+
+    /**
+     * Gets the robot's orientation at the given time, interpolating between samples.
+     *
+     * @param timestampNanos The time to look up, in the same timebase as frame timestamps
+     * @return The orientation, or empty if no samples have been received recently
+     */
+    public Optional<Rotation3d> getRotation(long timestampNanos) {
+        for (var sample : subscriber.readQueue()) {
+            history.addSample(sample.timestamp / 1e6, sample.value);
+        }
+
+        var samples = history.getInternalBuffer();
+        if (samples.isEmpty()) return Optional.empty();
+        // Don't trust stale data, e.g. if robot code stopped publishing
+        if (timestampNanos / 1e9 - samples.lastKey() > HISTORY_SECONDS) return Optional.empty();
+
+        return history.getSample(timestampNanos / 1e9);
+    }
+
+    @Override
+    public void close() {
+        subscriber.close();
+    }
+}
@@ -162,8 +162,7 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
                         TrackedTarget.simpleFromTrackedTargets(acceptedResult.targets),
                         acceptedResult.multiTagResult);
 
-        // random guess at size of the array
-        ts.resultPublisher.set(simplified, 1024);
+        ts.resultPublisher.set(simplified);
         if (ConfigManager.getInstance().getConfig().getNetworkConfig().shouldPublishProto) {
             ts.protoResultPublisher.set(simplified);
         }
@@ -198,6 +197,12 @@ public class NTDataPublisher implements CVPipelineResultConsumer {
             ts.bestTargetPosY.set(0);
         }
 
+        if (acceptedResult.visualOdometryResult.isPresent()) {
+            var vo = acceptedResult.visualOdometryResult.get();
+            ts.voPosePublisher.set(vo.pose);
+            ts.voMotionPublisher.set(vo.motion);
+        }
+
         // Something in the result can sometimes be null -- so check probably too many things
         if (acceptedResult.inputAndOutputFrame != null
                 && acceptedResult.inputAndOutputFrame.frameStaticProperties != null
@@ -30,6 +30,9 @@ public record DeviceMetrics(
         double diskUtilPct,
         double[] npuUsage,
         String ipAddress,
-        double uptime) {
+        double uptime,
+        long cvMatCount,
+        long cvMatBytes,
+        long droppedFrames) {
     public static final DeviceMetricsProto proto = new DeviceMetricsProto();
 }
@@ -38,6 +38,8 @@ import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
 import org.photonvision.common.networking.NetworkUtils;
 import org.photonvision.common.util.ShellExec;
+import org.photonvision.vision.opencv.CVMat;
+import org.photonvision.vision.processes.VisionRunner;
 
 public class MetricsManager {
     final Logger logger = new Logger(MetricsManager.class, LogGroup.General);
@@ -267,7 +269,10 @@ public class MetricsManager {
                         this.getUsedDiskPct(),
                         this.getNpuUsage(),
                         this.getIpAddress(),
-                        this.getUptime());
+                        this.getUptime(),
+                        CVMat.getMatCount(),
+                        CVMat.getMatBytes(),
+                        VisionRunner.getDroppedFrameTotal());
 
         metricPublisher.set(metrics);
 
@@ -51,7 +51,10 @@ public class DeviceMetricsProto implements Protobuf<DeviceMetrics, ProtobufDevic
                 msg.getDiskUtilPct(),
                 msg.getNpuUsage().toArray(),
                 msg.getIpAddress(),
-                msg.getUptime());
+                msg.getUptime(),
+                msg.getCvMatCount(),
+                msg.getCvMatBytes(),
+                msg.getDroppedFrames());
     }
 
     @Override
@@ -67,5 +70,8 @@ public class DeviceMetricsProto implements Protobuf<DeviceMetrics, ProtobufDevic
         msg.setDiskUtilPct(value.diskUtilPct());
         msg.addAllNpuUsage(value.npuUsage());
         msg.setIpAddress(value.ipAddress());
+        msg.setCvMatCount(value.cvMatCount());
+        msg.setCvMatBytes(value.cvMatBytes());
+        msg.setDroppedFrames(value.droppedFrames());
     }
 }
@@ -17,6 +17,7 @@
 
 package org.photonvision.vision.frame;
 
+import org.opencv.core.Rect;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.vision.opencv.CVMat;
 import org.photonvision.vision.opencv.Releasable;
@@ -32,19 +33,34 @@ public class Frame implements Releasable {
 
     public final FrameStaticProperties frameStaticProperties;
 
+    // The only part of processedImage that was converted, or null if all of it was
+    public final Rect roi;
+
     public Frame(
             long sequenceID,
             CVMat color,
             CVMat processed,
             FrameThresholdType type,
             long timestampNanos,
-            FrameStaticProperties frameStaticProperties) {
+            FrameStaticProperties frameStaticProperties,
+            Rect roi) {
         this.sequenceID = sequenceID;
         this.colorImage = color;
         this.processedImage = processed;
         this.type = type;
         this.timestampNanos = timestampNanos;
         this.frameStaticProperties = frameStaticProperties;
+        this.roi = roi;
+    }
+
+    public Frame(
+            long sequenceID,
+            CVMat color,
+            CVMat processed,
+            FrameThresholdType type,
+            long timestampNanos,
+            FrameStaticProperties frameStaticProperties) {
+        this(sequenceID, color, processed, type, timestampNanos, frameStaticProperties, null);
     }
 
     public Frame(
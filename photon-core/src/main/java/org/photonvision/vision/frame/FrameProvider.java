@@ -18,6 +18,7 @@
 package org.photonvision.vision.frame;
 
 import java.util.function.Supplier;
+import org.opencv.core.Rect;
 import org.photonvision.vision.opencv.ImageRotationMode;
 import org.photonvision.vision.opencv.Releasable;
 import org.photonvision.vision.pipe.impl.HSVPipe;
@@ -59,4 +60,12 @@ public abstract class FrameProvider implements Supplier<Frame>, Releasable {
 
     /** Ask the camera to rotate frames it outputs */
     public abstract void requestHsvSettings(HSVPipe.HSVParams params);
+
+    /**
+     * Ask the provider to only colour convert part of the frame, leaving the rest of the processed
+     * image blank. Providers that can't do this ignore it.
+     *
+     * @param roi The region to convert, in rotated frame pixels, or null for the whole frame
+     */
+    public void requestFrameRoi(Rect roi) {}
 }
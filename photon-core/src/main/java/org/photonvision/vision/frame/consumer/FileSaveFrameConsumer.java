@@ -81,6 +81,14 @@ public class FileSaveFrameConsumer implements Consumer<CVMat> {
         accept(image, new Date());
     }
 
+    /**
+     * @return Whether a snapshot has been requested that hasn't been saved yet
+     */
+    public boolean hasPendingSave() {
+        long currentCount = saveFrameEntry.get();
+        return currentCount != -1 && savedImagesCount < currentCount;
+    }
+
     public void accept(CVMat image, Date now) {
         long currentCount = saveFrameEntry.get();
 
@@ -20,18 +20,24 @@ package org.photonvision.vision.frame.consumer;
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.cscore.*;
 import edu.wpi.first.util.PixelFormat;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.vision.frame.StaticFrames;
 import org.photonvision.vision.opencv.CVMat;
 
 public class MJPGFrameConsumer implements AutoCloseable {
-    private static final double MAX_FRAMERATE = -1;
-    private static final long MAX_FRAME_PERIOD_NS = Math.round(1e9 / MAX_FRAMERATE);
+    private volatile double maxFps = -1;
+    private volatile int downscale = 1;
 
     private long lastFrameTimeNs;
-    private CvSource cvSource;
+    private volatile CvSource cvSource;
     private MjpegServer mjpegServer;
 
+    // Reused for downscaled frames
+    private final Mat resizedMat = new Mat();
+
     public MJPGFrameConsumer(String sourceName, int width, int height, int port) {
         this.cvSource = new CvSource(sourceName, PixelFormat.kMJPEG, width, height, 30);
 
@@ -45,25 +51,64 @@ public class MJPGFrameConsumer implements AutoCloseable {
         this(name, 320, 240, port);
     }
 
-    public void accept(CVMat image) {
+    /**
+     * Limit how often frames are sent to clients.
+     *
+     * @param maxFps Maximum frames per second, or 0 or less for no limit
+     */
+    public void setMaxFps(double maxFps) {
+        this.maxFps = maxFps;
+    }
+
+    /**
+     * Shrink frames before sending them to clients.
+     *
+     * @param downscale Factor to divide the width and height by, 1 to send frames as they are
+     */
+    public void setDownscale(int downscale) {
+        this.downscale = Math.max(1, downscale);
+    }
+
+    /**
+     * @return Whether any client is streaming from this consumer
+     */
+    public boolean hasClients() {
+        var source = cvSource;
+        // cscore only enables a source while a sink is pulling frames from it
+        return source != null && source.isEnabled();
+    }
+
+    public synchronized void accept(CVMat image) {
+        // Nobody is watching, so skip handing the frame to cscore entirely
+        if (!hasClients()) return;
+
         long now = MathUtils.wpiNanoTime();
+        double fps = maxFps;
+        if (fps > 0 && now - lastFrameTimeNs < Math.round(1e9 / fps)) return;
+        lastFrameTimeNs = now;
 
-        if (image == null || image.getMat() == null || image.getMat().empty()) {
-            image.copyFrom(StaticFrames.LOST_MAT);
-        }
+        Mat mat =
+                image == null || image.getMat() == null || image.getMat().empty()
+                        ? StaticFrames.LOST_MAT
+                        : image.getMat();
 
-        if (now - lastFrameTimeNs > MAX_FRAME_PERIOD_NS) {
-            lastFrameTimeNs = now;
-            cvSource.putFrame(image.getMat());
+        // cscore copies the frame and JPEG-encodes it on its own server threads
+        int divisor = downscale;
+        if (divisor > 1) {
+            Imgproc.resize(
+                    mat, resizedMat, new Size(), 1.0 / divisor, 1.0 / divisor, Imgproc.INTER_AREA);
+            mat = resizedMat;
         }
+        cvSource.putFrame(mat);
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         CameraServer.removeServer(mjpegServer.getName());
         mjpegServer.close();
         cvSource.close();
         mjpegServer = null;
         cvSource = null;
+        resizedMat.release();
     }
 }
@@ -17,6 +17,10 @@
 
 package org.photonvision.vision.frame.provider;
 
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
 import org.photonvision.common.util.numbers.IntegerCouple;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameProvider;
@@ -24,7 +28,7 @@ import org.photonvision.vision.frame.FrameStaticProperties;
 import org.photonvision.vision.frame.FrameThresholdType;
 import org.photonvision.vision.opencv.CVMat;
 import org.photonvision.vision.opencv.ImageRotationMode;
-import org.photonvision.vision.pipe.CVPipe.CVPipeResult;
+import org.photonvision.vision.opencv.MatPool;
 import org.photonvision.vision.pipe.impl.GrayscalePipe;
 import org.photonvision.vision.pipe.impl.HSVPipe;
 import org.photonvision.vision.pipe.impl.RotateImagePipe;
@@ -47,6 +51,15 @@ public abstract class CpuImageProcessor extends FrameProvider {
     private final RotateImagePipe m_rImagePipe = new RotateImagePipe();
     private final GrayscalePipe m_grayPipe = new GrayscalePipe();
     FrameThresholdType m_processType;
+    // Part of the frame to colour convert, or null for all of it
+    private Rect m_roi = null;
+    // Whether anything will look at the colour image when we're thresholding
+    private boolean m_copyInput = true;
+
+    private static final Scalar kBlank = new Scalar(0);
+
+    /** Buffers for this camera's frames, which return here when the frame is released */
+    protected final MatPool m_matPool = new MatPool();
 
     private final Object m_mutex = new Object();
 
@@ -63,27 +76,60 @@ public abstract class CpuImageProcessor extends FrameProvider {
 
     @Override
     public final Frame get() {
-        // TODO Auto-generated method stub
         var input = getInputMat();
 
+        FrameThresholdType processType;
+        ImageRotationMode rotation;
+        boolean copyInput;
+        synchronized (m_mutex) {
+            processType = m_processType;
+            rotation = m_rImagePipe.getParams().rotation();
+            copyInput = m_copyInput;
+        }
+
+        CVMat colorImage = input.colorImage;
         CVMat outputMat = null;
+        Rect roi = null;
         long sumNanos = 0;
 
-        {
-            CVPipeResult<Void> out = m_rImagePipe.run(input.colorImage.getMat());
-            sumNanos += out.nanosElapsed;
-        }
+        var colorMat = colorImage.getMat();
+        if (!colorMat.empty()) {
+            if (processType == FrameThresholdType.HSV || processType == FrameThresholdType.GREYSCALE) {
+                boolean swapsSides =
+                        rotation == ImageRotationMode.DEG_90_CCW || rotation == ImageRotationMode.DEG_270_CCW;
+                int rows = swapsSides ? colorMat.cols() : colorMat.rows();
+                int cols = swapsSides ? colorMat.rows() : colorMat.cols();
+
+                roi = clampRoi(cols, rows);
+                outputMat = m_matPool.acquire(rows, cols, CvType.CV_8UC1);
 
-        if (!input.colorImage.getMat().empty()) {
-            if (m_processType == FrameThresholdType.HSV) {
-                var hsvResult = m_hsvPipe.run(input.colorImage.getMat());
-                outputMat = new CVMat(hsvResult.output);
-                sumNanos += hsvResult.nanosElapsed;
-            } else if (m_processType == FrameThresholdType.GREYSCALE) {
-                var result = m_grayPipe.run(input.colorImage.getMat());
-                outputMat = new CVMat(result.output);
-                sumNanos += result.nanosElapsed;
+                if (rotation == ImageRotationMode.DEG_0) {
+                    sumNanos += convert(processType, colorMat, outputMat.getMat(), roi);
+                } else {
+                    // Convert first and rotate the single-channel result, which moves a third of the
+                    // bytes that rotating the colour image would
+                    var unrotated =
+                            m_matPool.acquire(colorMat.rows(), colorMat.cols(), CvType.CV_8UC1);
+                    sumNanos +=
+                            convert(
+                                    processType,
+                                    colorMat,
+                                    unrotated.getMat(),
+                                    unrotateRoi(roi, rotation, colorMat.cols(), colorMat.rows()));
+                    sumNanos += m_rImagePipe.run(unrotated.getMat(), outputMat.getMat()).nanosElapsed;
+                    unrotated.release();
+                }
+
+                // Nobody will look at the colour image, so don't spend time rotating it. This matches
+                // what the GPU provider does when it isn't asked to copy the input.
+                if (copyInput) {
+                    sumNanos += m_rImagePipe.run(colorMat).nanosElapsed;
+                } else {
+                    colorImage.release();
+                    colorImage = new CVMat();
+                }
             } else {
+                sumNanos += m_rImagePipe.run(colorMat).nanosElapsed;
                 outputMat = new CVMat();
             }
 
@@ -95,13 +141,78 @@ public abstract class CpuImageProcessor extends FrameProvider {
 
         return new Frame(
                 sequenceID,
-                input.colorImage,
+                colorImage,
                 outputMat,
-                m_processType,
+                processType,
                 input.captureTimestamp,
-                input.staticProps != null
-                        ? input.staticProps.rotate(m_rImagePipe.getParams().rotation())
-                        : input.staticProps);
+                input.staticProps != null ? input.staticProps.rotate(rotation) : input.staticProps,
+                roi);
+    }
+
+    /**
+     * Threshold or greyscale {@code in} into {@code out}, only touching the region of interest.
+     *
+     * @return Time taken, in nanoseconds
+     */
+    private long convert(FrameThresholdType processType, Mat in, Mat out, Rect roi) {
+        // Only convert the region of interest, so pipelines never see stale pixels outside it
+        if (roi != null) {
+            out.setTo(kBlank);
+            in = in.submat(roi);
+            out = out.submat(roi);
+        }
+
+        long nanos;
+        if (processType == FrameThresholdType.HSV) {
+            nanos = m_hsvPipe.run(in, out).nanosElapsed;
+        } else {
+            nanos = m_grayPipe.run(in, out).nanosElapsed;
+        }
+
+        if (roi != null) {
+            in.release();
+            out.release();
+        }
+        return nanos;
+    }
+
+    private Rect clampRoi(int width, int height) {
+        Rect roi;
+        synchronized (m_mutex) {
+            roi = m_roi;
+        }
+        if (roi == null) return null;
+
+        // The region was picked for the last frame's size, which may differ from this one's
+        int x = Math.max(roi.x, 0);
+        int y = Math.max(roi.y, 0);
+        int w = Math.min(roi.x + roi.width, width) - x;
+        int h = Math.min(roi.y + roi.height, height) - y;
+        if (w <= 0 || h <= 0 || (w == width && h == height)) return null;
+        return new Rect(x, y, w, h);
+    }
+
+    /**
+     * Find where a region of the rotated frame came from in the camera's image.
+     *
+     * @param roi The region in the rotated frame, or null
+     * @param rotation How the camera's image is rotated
+     * @param width Width of the camera's image, before rotation
+     * @param height Height of the camera's image, before rotation
+     * @return The region in the camera's image, or null
+     */
+    static Rect unrotateRoi(Rect roi, ImageRotationMode rotation, int width, int height) {
+        if (roi == null) return null;
+
+        return switch (rotation) {
+            case DEG_0 -> roi;
+            // Core.ROTATE_90_COUNTERCLOCKWISE
+            case DEG_90_CCW -> new Rect(width - roi.y - roi.height, roi.x, roi.height, roi.width);
+            case DEG_180_CCW ->
+                    new Rect(width - roi.x - roi.width, height - roi.y - roi.height, roi.width, roi.height);
+            // Core.ROTATE_90_CLOCKWISE
+            case DEG_270_CCW -> new Rect(roi.y, height - roi.x - roi.width, roi.height, roi.width);
+        };
     }
 
     @Override
@@ -118,6 +229,13 @@ public abstract class CpuImageProcessor extends FrameProvider {
         }
     }
 
+    @Override
+    public void requestFrameRoi(Rect roi) {
+        synchronized (m_mutex) {
+            m_roi = roi;
+        }
+    }
+
     /** Ask the camera to rotate frames it outputs */
     public void requestHsvSettings(HSVPipe.HSVParams params) {
         synchronized (m_mutex) {
@@ -127,6 +245,16 @@ public abstract class CpuImageProcessor extends FrameProvider {
 
     @Override
     public void requestFrameCopies(boolean copyInput, boolean copyOutput) {
-        // We don't actually do zero-copy, so this method is a no-op
+        // The processed image is always made, since pipelines search it even when nobody watches it
+        synchronized (m_mutex) {
+            m_copyInput = copyInput;
+        }
+    }
+
+    /** Free the buffers used to convert frames. Subclasses should call this from their release. */
+    @Override
+    public void release() {
+        m_hsvPipe.release();
+        m_matPool.release();
     }
 }
@@ -99,8 +99,9 @@ public class FileFrameProvider extends CpuImageProcessor implements Releasable {
 
     @Override
     public CapturedFrame getInputMat() {
-        var out = new CVMat();
-        out.copyFrom(originalFrame);
+        var original = originalFrame.getMat();
+        var out = m_matPool.acquire(original.rows(), original.cols(), original.type());
+        out.copyFrom(original);
 
         // block to keep FPS at a defined rate
         if (System.currentTimeMillis() - lastGetMillis < millisDelay) {
@@ -125,6 +126,7 @@ public class FileFrameProvider extends CpuImageProcessor implements Releasable {
     @Override
     public void release() {
         originalFrame.release();
+        super.release();
     }
 
     @Override
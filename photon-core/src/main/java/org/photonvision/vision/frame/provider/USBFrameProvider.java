@@ -23,6 +23,7 @@ import edu.wpi.first.cscore.UsbCamera;
 import edu.wpi.first.networktables.BooleanSubscriber;
 import edu.wpi.first.util.PixelFormat;
 import edu.wpi.first.util.RawFrame;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.photonvision.common.dataflow.networktables.NetworkTablesManager;
 import org.photonvision.common.logging.LogGroup;
@@ -44,6 +45,13 @@ public class USBFrameProvider extends CpuImageProcessor {
 
     private long lastTime = 0;
 
+    // Size and type of the last image grabFrame delivered, or -1 rows before the first one. grabFrame
+    // reallocates the Mat to whatever the sink hands back, which need not match the video mode, so
+    // pooled buffers are requested in this shape to be filled in place.
+    private int grabbedRows = -1;
+    private int grabbedCols = 0;
+    private int grabbedType = CvType.CV_8UC3;
+
     // subscribers are lightweight, and I'm lazy
     private final BooleanSubscriber useNewBehaviorSub;
 
@@ -87,8 +95,14 @@ public class USBFrameProvider extends CpuImageProcessor {
         }
 
         if (!useNewBehaviorSub.get()) {
-            // We allocate memory so we don't fill a Mat in use by another thread (memory model is easier)
-            var mat = new CVMat();
+            // Take a buffer no other thread is using from the pool (memory model is easier). If it's
+            // the shape of the last image, grabFrame fills it without reallocating.
+            if (grabbedRows < 0) {
+                var cameraMode = settables.getCurrentVideoMode();
+                grabbedRows = cameraMode.height;
+                grabbedCols = cameraMode.width;
+            }
+            var mat = m_matPool.acquire(grabbedRows, grabbedCols, grabbedType);
             // This is from wpi::Now, or WPIUtilJNI.now(). The epoch from grabFrame is uS since
             // Hal::initialize was called
             // TODO - under the hood, this incurs an extra copy. We should avoid this, if we
@@ -98,6 +112,14 @@ public class USBFrameProvider extends CpuImageProcessor {
             if (captureTimeNs == 0) {
                 var error = cvSink.getError();
                 logger.error("Error grabbing image: " + error);
+
+                // The pooled buffer holds a stale image, so hand back an empty one instead
+                mat.release();
+                mat = new CVMat();
+            } else {
+                grabbedRows = mat.getMat().rows();
+                grabbedCols = mat.getMat().cols();
+                grabbedType = mat.getMat().type();
             }
 
             return new CapturedFrame(mat, settables.getFrameStaticProperties(), captureTimeNs);
@@ -150,6 +172,7 @@ public class USBFrameProvider extends CpuImageProcessor {
         CameraServer.removeServer(cvSink.getName());
         cvSink.close();
         cvSink = null;
+        super.release();
     }
 
     @Override
@@ -18,7 +18,10 @@
 package org.photonvision.vision.opencv;
 
 import edu.wpi.first.util.RawFrame;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import org.opencv.core.Mat;
 import org.photonvision.common.logging.LogGroup;
 import org.photonvision.common.logging.Logger;
@@ -26,20 +29,31 @@ import org.photonvision.common.logging.Logger;
 public class CVMat implements Releasable {
     private static final Logger logger = new Logger(CVMat.class, LogGroup.General);
 
-    private static int allMatCounter = 0;
-    private static final HashMap<Mat, Integer> allMats = new HashMap<>();
+    // CVMats are created and released from the vision, stream and calibration threads at once, so
+    // live totals are kept in striped counters rather than a shared map
+    private static final LongAdder liveMats = new LongAdder();
+    private static final LongAdder liveBytes = new LongAdder();
+
+    // One in this many allocations records where it came from, so leaks can be traced back to their
+    // source without paying for a stack walk on every frame. 0 disables sampling.
+    private static volatile int allocationSampleInterval = 0;
+    private static final ConcurrentHashMap<CVMat, Throwable> sampledAllocations =
+            new ConcurrentHashMap<>();
 
     private static boolean shouldPrint;
 
     private final Mat mat;
     private final RawFrame backingFrame;
+    private final MatPool pool;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    private long accountedBytes = 0;
 
     public CVMat() {
         this(new Mat());
     }
 
     public CVMat(Mat mat) {
-        this(mat, null);
+        this(mat, null, null);
     }
 
     public void copyFrom(CVMat srcMat) {
@@ -48,6 +62,7 @@ public class CVMat implements Releasable {
 
     public void copyFrom(Mat srcMat) {
         srcMat.copyTo(mat);
+        updateAccountedBytes();
     }
 
     private StringBuilder getStackTraceBuilder() {
@@ -63,32 +78,63 @@ public class CVMat implements Releasable {
     }
 
     public CVMat(Mat mat, RawFrame frame) {
+        this(mat, frame, null);
+    }
+
+    /** Wrap a Mat that belongs to {@code pool}, and goes back to it on release. */
+    CVMat(Mat mat, MatPool pool) {
+        this(mat, null, pool);
+    }
+
+    private CVMat(Mat mat, RawFrame frame, MatPool pool) {
         this.mat = mat;
         this.backingFrame = frame;
+        this.pool = pool;
 
-        allMatCounter++;
-        allMats.put(mat, allMatCounter);
+        liveMats.increment();
+        updateAccountedBytes();
+
+        int sampleInterval = allocationSampleInterval;
+        if (sampleInterval > 0 && ThreadLocalRandom.current().nextInt(sampleInterval) == 0) {
+            sampledAllocations.put(this, new Throwable("CVMat allocated here"));
+        }
 
         if (shouldPrint) {
-            logger.trace(() -> "CVMat" + allMatCounter + " alloc - new count: " + allMats.size());
+            logger.trace(() -> "CVMat alloc - new count: " + liveMats.sum());
             logger.trace(getStackTraceBuilder()::toString);
         }
     }
 
+    /**
+     * Bring this Mat's contribution to {@link #getMatBytes()} up to date. Only the points where we
+     * know the buffer may have changed size call this, so a Mat that is resized elsewhere is counted
+     * at its old size until it's released.
+     */
+    private void updateAccountedBytes() {
+        long bytes = mat.empty() ? 0 : mat.total() * mat.elemSize();
+        liveBytes.add(bytes - accountedBytes);
+        accountedBytes = bytes;
+    }
+
     @Override
     public void release() {
+        // Only count a release once, and only hand a pooled buffer back once, or two frames could end
+        // up sharing it. Frames can be released from more than one thread, so claim the release
+        // atomically.
+        if (!released.compareAndSet(false, true)) return;
+
         if (this.backingFrame != null) this.backingFrame.close();
 
-        // If this mat is empty, all we can do is return
-        if (mat.empty()) return;
+        liveMats.decrement();
+        liveBytes.add(-accountedBytes);
+        accountedBytes = 0;
+        sampledAllocations.remove(this);
 
-        // If the mat isn't in the hashmap, we can't remove it
-        Integer matNo = allMats.get(mat);
-        if (matNo != null) allMats.remove(mat);
-        mat.release();
+        if (pool != null) pool.giveBack(mat);
+        else mat.release();
 
         if (shouldPrint) {
-            logger.trace(() -> "CVMat" + matNo + " de-alloc - new count: " + allMats.size());
+            logger.trace(() -> "CVMat de-alloc - new count: " + liveMats.sum());
             logger.trace(getStackTraceBuilder()::toString);
         }
     }
@@ -102,8 +148,47 @@ public class CVMat implements Releasable {
         return "CVMat{" + mat.toString() + '}';
     }
 
+    /**
+     * @return The number of CVMats that have been created but not yet released
+     */
     public static int getMatCount() {
-        return allMats.size();
+        return (int) liveMats.sum();
+    }
+
+    /**
+     * @return An estimate of the native memory held by unreleased CVMats, in bytes
+     */
+    public static long getMatBytes() {
+        return liveBytes.sum();
+    }
+
+    /**
+     * Record the allocation site of roughly one in every {@code interval} CVMats, so that {@link
+     * #logSampledAllocations()} can report where unreleased Mats came from.
+     *
+     * @param interval How many allocations per sample, or 0 to stop sampling
+     */
+    public static void setAllocationSampleInterval(int interval) {
+        allocationSampleInterval = Math.max(interval, 0);
+        if (interval <= 0) sampledAllocations.clear();
+    }
+
+    /** Log the allocation site of every sampled CVMat that hasn't been released yet. */
+    public static void logSampledAllocations() {
+        logger.info(
+                "Live CVMats: "
+                        + getMatCount()
+                        + " ("
+                        + getMatBytes()
+                        + " bytes), "
+                        + sampledAllocations.size()
+                        + " sampled");
+        for (var site : sampledAllocations.values()) {
+            logger.info(site::toString);
+            for (var frame : site.getStackTrace()) {
+                logger.info("\tat " + frame);
+            }
+        }
     }
 
     public static void enablePrint(boolean enabled) {
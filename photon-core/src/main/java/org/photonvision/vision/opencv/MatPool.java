@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.opencv;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import org.opencv.core.Mat;
+
+/**
+ * A pool of native {@link Mat} buffers, keyed by size and type. Each frame provider owns one, so at
+ * steady state the frames it hands out reuse the buffers of frames that have already been released
+ * instead of going through malloc/free at camera rate.
+ *
+ * <p>Mats are taken out with {@link #acquire} and come back automatically when the {@link CVMat}
+ * wrapping them is released. Acquire and release may happen on different threads.
+ */
+public class MatPool implements Releasable {
+    /** How many idle buffers of a single size and type we hold on to before freeing extras */
+    private static final int MAX_IDLE_PER_KEY = 4;
+
+    private record Key(int rows, int cols, int type) {}
+
+    private final HashMap<Key, ArrayDeque<Mat>> idle = new HashMap<>();
+    private boolean released = false;
+
+    /**
+     * Get a Mat of the given size and type, reusing an idle buffer if one is available. The contents
+     * are whatever the last user left behind.
+     *
+     * @param rows Image height
+     * @param cols Image width
+     * @param type OpenCV type, such as {@link org.opencv.core.CvType#CV_8UC3}
+     * @return A CVMat that returns its buffer to this pool when released
+     */
+    public CVMat acquire(int rows, int cols, int type) {
+        Mat mat = null;
+        synchronized (idle) {
+            var queue = idle.get(new Key(rows, cols, type));
+            if (queue != null) mat = queue.pollFirst();
+        }
+
+        if (mat == null) mat = new Mat(rows, cols, type);
+        return new CVMat(mat, this);
+    }
+
+    /** Hand a Mat back to the pool. Called by {@link CVMat#release()}. */
+    void giveBack(Mat mat) {
+        // Mats may have been reallocated by whoever used them, so key on what they are now
+        if (!mat.empty()) {
+            var key = new Key(mat.rows(), mat.cols(), mat.type());
+            synchronized (idle) {
+                if (!released) {
+                    var queue = idle.computeIfAbsent(key, k -> new ArrayDeque<>());
+                    if (queue.size() < MAX_IDLE_PER_KEY) {
+                        queue.addFirst(mat);
+                        return;
+                    }
+                }
+            }
+        }
+
+        mat.release();
+    }
+
+    /** Free all idle buffers. Mats still in use are freed when they come back. */
+    @Override
+    public void release() {
+        synchronized (idle) {
+            released = true;
+            for (var queue : idle.values()) {
+                for (var mat : queue) {
+                    mat.release();
+                }
+            }
+            idle.clear();
+        }
+    }
+}
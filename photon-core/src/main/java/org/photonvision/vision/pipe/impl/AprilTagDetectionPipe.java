@@ -19,7 +19,10 @@ package org.photonvision.vision.pipe.impl;
 
 import edu.wpi.first.apriltag.AprilTagDetection;
 import edu.wpi.first.apriltag.AprilTagDetector;
+import java.util.ArrayList;
 import java.util.List;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
 import org.photonvision.vision.apriltag.AprilTagFamily;
 import org.photonvision.vision.opencv.CVMat;
 import org.photonvision.vision.opencv.Releasable;
@@ -31,6 +34,10 @@ public class AprilTagDetectionPipe
         implements Releasable {
     private AprilTagDetector m_detector = new AprilTagDetector();
 
+    // The detector needs a continuous image, so regions of interest are copied in here
+    private final Mat m_roiMat = new Mat();
+    private Rect m_roi = null;
+
     public AprilTagDetectionPipe() {
         super();
 
@@ -38,6 +45,22 @@ public class AprilTagDetectionPipe
         m_detector.addFamily("tag36h11");
     }
 
+    /**
+     * Detect tags in only part of the image. Detections are still in full-image pixels.
+     *
+     * @param in Greyscale image to search
+     * @param roi Region of the image to search, or null for all of it
+     * @return Result of processing
+     */
+    public CVPipeResult<List<AprilTagDetection>> run(CVMat in, Rect roi) {
+        m_roi = roi;
+        try {
+            return run(in);
+        } finally {
+            m_roi = null;
+        }
+    }
+
     @Override
     protected List<AprilTagDetection> process(CVMat in) {
         if (in.getMat().empty()) {
@@ -48,13 +71,57 @@ public class AprilTagDetectionPipe
             throw new RuntimeException("Apriltag detector was released!");
         }
 
-        var ret = m_detector.detect(in.getMat());
+        if (m_roi == null) {
+            var ret = m_detector.detect(in.getMat());
+
+            if (ret == null) {
+                return List.of();
+            }
+
+            return List.of(ret);
+        }
+
+        var sub = in.getMat().submat(m_roi);
+        sub.copyTo(m_roiMat);
+        sub.release();
+
+        var ret = m_detector.detect(m_roiMat);
 
         if (ret == null) {
             return List.of();
         }
 
-        return List.of(ret);
+        var shifted = new ArrayList<AprilTagDetection>(ret.length);
+        for (var detection : ret) {
+            shifted.add(offset(detection, m_roi.x, m_roi.y));
+        }
+        return shifted;
+    }
+
+    /** Move a detection made in a cropped image back into the full image */
+    private static AprilTagDetection offset(AprilTagDetection detection, double dx, double dy) {
+        var corners = detection.getCorners();
+        for (int i = 0; i < corners.length; i += 2) {
+            corners[i] += dx;
+            corners[i + 1] += dy;
+        }
+
+        // Premultiply by a translation, so the homography maps tag coordinates to full image pixels
+        var h = detection.getHomography();
+        for (int col = 0; col < 3; col++) {
+            h[col] += dx * h[6 + col];
+            h[3 + col] += dy * h[6 + col];
+        }
+
+        return new AprilTagDetection(
+                detection.getFamily(),
+                detection.getId(),
+                detection.getHamming(),
+                detection.getDecisionMargin(),
+                h,
+                detection.getCenterX() + dx,
+                detection.getCenterY() + dy,
+                corners);
     }
 
     @Override
@@ -74,6 +141,7 @@ public class AprilTagDetectionPipe
     public void release() {
         m_detector.close();
         m_detector = null;
+        m_roiMat.release();
     }
 
     public static record AprilTagDetectionPipeParams(
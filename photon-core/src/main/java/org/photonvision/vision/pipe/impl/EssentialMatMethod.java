@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import org.opencv.calib3d.Calib3d;
+
+/** The robust estimator used by {@link VisualOdometryPipe} to solve for the essential matrix. */
+public enum EssentialMatMethod {
+    RANSAC(Calib3d.RANSAC),
+    LMEDS(Calib3d.LMEDS),
+    USAC_DEFAULT(Calib3d.USAC_DEFAULT),
+    USAC_FAST(Calib3d.USAC_FAST),
+    USAC_ACCURATE(Calib3d.USAC_ACCURATE),
+    USAC_PROSAC(Calib3d.USAC_PROSAC),
+    USAC_MAGSAC(Calib3d.USAC_MAGSAC);
+
+    /** The method flag to pass to OpenCV. */
+    public final int flag;
+
+    EssentialMatMethod(int flag) {
+        this.flag = flag;
+    }
+}
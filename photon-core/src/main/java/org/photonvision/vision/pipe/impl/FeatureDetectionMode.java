@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+/** How {@link VisualOdometryPipe} picks which FAST corners to track. */
+public enum FeatureDetectionMode {
+    /** Keep every corner FAST finds in the frame. */
+    Full,
+    /**
+     * Split the frame into a grid, keep only the strongest corners in each cell, and cap the total.
+     */
+    Bucketed
+}
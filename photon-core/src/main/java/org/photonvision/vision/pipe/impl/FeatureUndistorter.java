@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import org.opencv.calib3d.Calib3d;
+import org.opencv.core.CvType;
+import org.opencv.core.MatOfPoint2f;
+import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
+
+/**
+ * Undistorts feature coordinates using a coarse grid of precomputed undistorted positions.
+ *
+ * <p>Running the iterative point undistortion on every tracked feature every frame would be
+ * wasteful, since the distortion is smooth and never changes for a given calibration. Instead the
+ * undistorted position of every {@link #GRID_STEP}th pixel is solved once when the calibration is
+ * first seen, and features are bilinearly interpolated from that grid. The grid is small enough that
+ * building it is cheap, and interpolating it is just a few multiplies per point.
+ */
+public class FeatureUndistorter {
+    /** Spacing in pixels between grid samples. */
+    public static final int GRID_STEP = 8;
+
+    private final CameraCalibrationCoefficients calibration;
+    private final int width;
+    private final int height;
+
+    private final int gridCols;
+    private final int gridRows;
+    // Undistorted x,y for each grid sample, row major
+    private final float[] grid;
+
+    public FeatureUndistorter(CameraCalibrationCoefficients calibration, int width, int height) {
+        this.calibration = calibration;
+        this.width = width;
+        this.height = height;
+
+        // One extra sample past each edge so every pixel in the image sits inside a grid cell
+        gridCols = width / GRID_STEP + 2;
+        gridRows = height / GRID_STEP + 2;
+        grid = new float[gridCols * gridRows * 2];
+
+        for (int row = 0; row < gridRows; row++) {
+            for (int col = 0; col < gridCols; col++) {
+                int i = 2 * (row * gridCols + col);
+                grid[i] = col * GRID_STEP;
+                grid[i + 1] = row * GRID_STEP;
+            }
+        }
+
+        var points = new MatOfPoint2f();
+        points.create(gridCols * gridRows, 1, CvType.CV_32FC2);
+        points.put(0, 0, grid);
+        Calib3d.undistortImagePoints(
+                points, points, calibration.getCameraIntrinsicsMat(), calibration.getDistCoeffsMat());
+        points.get(0, 0, grid);
+        points.release();
+    }
+
+    /** Whether this undistorter was built for the given calibration and image size. */
+    public boolean matches(CameraCalibrationCoefficients calibration, int width, int height) {
+        return this.calibration == calibration && this.width == width && this.height == height;
+    }
+
+    /**
+     * Undistorts packed x,y points. {@code src} and {@code dst} may be the same array.
+     *
+     * @param src Distorted points, packed as x,y pairs
+     * @param dst Where to write the undistorted points, packed the same way
+     * @param count How many points to undistort
+     */
+    public void undistort(float[] src, float[] dst, int count) {
+        for (int i = 0; i < count; i++) {
+            float x = src[2 * i];
+            float y = src[2 * i + 1];
+
+            // Points outside the image are extrapolated from the nearest edge cell
+            float gx = x / GRID_STEP;
+            float gy = y / GRID_STEP;
+            int col = Math.max(0, Math.min(gridCols - 2, (int) Math.floor(gx)));
+            int row = Math.max(0, Math.min(gridRows - 2, (int) Math.floor(gy)));
+            float fx = gx - col;
+            float fy = gy - row;
+
+            int topLeft = 2 * (row * gridCols + col);
+            int bottomLeft = topLeft + 2 * gridCols;
+
+            float w00 = (1 - fx) * (1 - fy);
+            float w10 = fx * (1 - fy);
+            float w01 = (1 - fx) * fy;
+            float w11 = fx * fy;
+
+            dst[2 * i] =
+                    w00 * grid[topLeft]
+                            + w10 * grid[topLeft + 2]
+                            + w01 * grid[bottomLeft]
+                            + w11 * grid[bottomLeft + 2];
+            dst[2 * i + 1] =
+                    w00 * grid[topLeft + 1]
+                            + w10 * grid[topLeft + 3]
+                            + w01 * grid[bottomLeft + 1]
+                            + w11 * grid[bottomLeft + 3];
+        }
+    }
+}
@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.List;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
 import org.opencv.imgproc.Imgproc;
 import org.photonvision.vision.opencv.Contour;
 import org.photonvision.vision.pipe.CVPipe;
@@ -28,6 +30,23 @@ import org.photonvision.vision.pipe.CVPipe;
 public class FindContoursPipe
         extends CVPipe<Mat, List<Contour>, FindContoursPipe.FindContoursParams> {
     private final List<MatOfPoint> m_foundContours = new ArrayList<>();
+    private Rect m_roi = null;
+
+    /**
+     * Find contours in only part of the image. Contours are still in full-image pixels.
+     *
+     * @param in Thresholded image to search
+     * @param roi Region of the image to search, or null for all of it
+     * @return Result of processing
+     */
+    public CVPipeResult<List<Contour>> run(Mat in, Rect roi) {
+        m_roi = roi;
+        try {
+            return run(in);
+        } finally {
+            m_roi = null;
+        }
+    }
 
     @Override
     protected List<Contour> process(Mat in) {
@@ -36,8 +55,20 @@ public class FindContoursPipe
         }
         m_foundContours.clear();
 
-        Imgproc.findContours(
-                in, m_foundContours, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS);
+        if (m_roi == null) {
+            Imgproc.findContours(
+                    in, m_foundContours, new Mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_TC89_KCOS);
+        } else {
+            var sub = in.submat(m_roi);
+            Imgproc.findContours(
+                    sub,
+                    m_foundContours,
+                    new Mat(),
+                    Imgproc.RETR_EXTERNAL,
+                    Imgproc.CHAIN_APPROX_TC89_KCOS,
+                    new Point(m_roi.x, m_roi.y));
+            sub.release();
+        }
 
         return m_foundContours.stream().map(Contour::new).toList();
     }
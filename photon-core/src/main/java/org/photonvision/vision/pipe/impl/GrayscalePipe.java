@@ -22,9 +22,28 @@ import org.opencv.imgproc.Imgproc;
 import org.photonvision.vision.pipe.CVPipe;
 
 public class GrayscalePipe extends CVPipe<Mat, Mat, GrayscalePipe.GrayscaleParams> {
+    private Mat dst = null;
+
+    /**
+     * Convert into {@code dst}, reusing its buffer if it is already a single-channel image of the
+     * input's size.
+     *
+     * @param in BGR image to convert
+     * @param dst Where to write the greyscale image
+     * @return Result of processing, with {@code dst} as the output
+     */
+    public CVPipeResult<Mat> run(Mat in, Mat dst) {
+        this.dst = dst;
+        try {
+            return run(in);
+        } finally {
+            this.dst = null;
+        }
+    }
+
     @Override
     protected Mat process(Mat in) {
-        var outputMat = new Mat();
+        var outputMat = dst != null ? dst : new Mat();
         // We can save a copy here by sending the output of cvtcolor to outputMat directly
         // rather than copying. Free performance!
         Imgproc.cvtColor(in, outputMat, Imgproc.COLOR_BGR2GRAY, 3);
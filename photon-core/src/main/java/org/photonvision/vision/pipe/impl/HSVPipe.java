@@ -25,12 +25,35 @@ import org.photonvision.common.util.numbers.IntegerCouple;
 import org.photonvision.vision.pipe.CVPipe;
 
 public class HSVPipe extends CVPipe<Mat, Mat, HSVPipe.HSVParams> {
+    // Scratch buffers, reused across frames since the input size rarely changes
+    private final Mat hsvMat = new Mat();
+    private final Mat lowerThresholdMat = new Mat();
+
+    private Mat dst = null;
+
+    /**
+     * Threshold into {@code dst}, reusing its buffer if it is already a single-channel image of the
+     * input's size.
+     *
+     * @param in BGR image to threshold
+     * @param dst Where to write the thresholded image
+     * @return Result of processing, with {@code dst} as the output
+     */
+    public CVPipeResult<Mat> run(Mat in, Mat dst) {
+        this.dst = dst;
+        try {
+            return run(in);
+        } finally {
+            this.dst = null;
+        }
+    }
+
     @Override
     protected Mat process(Mat in) {
-        var outputMat = new Mat();
-        // We can save a copy here by sending the output of cvtcolor to outputMat directly
-        // rather than copying. Free performance!
-        Imgproc.cvtColor(in, outputMat, Imgproc.COLOR_BGR2HSV, 3);
+        var outputMat = dst != null ? dst : new Mat();
+        // Convert into a scratch Mat rather than the output, since the output is single-channel and
+        // reusing it for the 3-channel HSV image would force a reallocation every frame
+        Imgproc.cvtColor(in, hsvMat, Imgproc.COLOR_BGR2HSV, 3);
 
         if (params.hueInverted()) {
             // In Java code we do this by taking an image thresholded
@@ -42,8 +65,7 @@ public class HSVPipe extends CVPipe<Mat, Mat, HSVPipe.HSVParams> {
             firstLower.val[0] = params.hsvUpper().val[0];
             firstUpper.val[0] = 180;
 
-            var lowerThresholdMat = new Mat();
-            Core.inRange(outputMat, firstLower, firstUpper, lowerThresholdMat);
+            Core.inRange(hsvMat, firstLower, firstUpper, lowerThresholdMat);
 
             // We want hue from 0 to the start of the slider
             var secondLower = params.hsvLower().clone();
@@ -51,21 +73,24 @@ public class HSVPipe extends CVPipe<Mat, Mat, HSVPipe.HSVParams> {
             secondLower.val[0] = 0;
             secondUpper.val[0] = params.hsvLower().val[0];
 
-            // Now that the output mat's been used by the first inRange, it's fine to mutate it
-            Core.inRange(outputMat, secondLower, secondUpper, outputMat);
+            Core.inRange(hsvMat, secondLower, secondUpper, outputMat);
 
             // Now OR the two images together to make a mat that combines the lower and upper bounds
             // outputMat holds the second half of the range
             Core.bitwise_or(lowerThresholdMat, outputMat, outputMat);
-
-            lowerThresholdMat.release();
         } else {
-            Core.inRange(outputMat, params.hsvLower(), params.hsvUpper(), outputMat);
+            Core.inRange(hsvMat, params.hsvLower(), params.hsvUpper(), outputMat);
         }
 
         return outputMat;
     }
 
+    /** Free the scratch buffers. They are reallocated if the pipe is run again. */
+    public void release() {
+        hsvMat.release();
+        lowerThresholdMat.release();
+    }
+
     public static record HSVParams(Scalar hsvLower, Scalar hsvUpper, boolean hueInverted) {
         public HSVParams(
                 IntegerCouple hue, IntegerCouple saturation, IntegerCouple value, boolean hueInverted) {
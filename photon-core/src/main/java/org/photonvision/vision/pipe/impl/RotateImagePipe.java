@@ -32,6 +32,25 @@ public class RotateImagePipe extends MutatingPipe<Mat, RotateImagePipe.RotateIma
         setParams(params);
     }
 
+    private Mat dst = null;
+
+    /**
+     * Rotate into {@code dst} instead of in place, reusing its buffer if it is already the rotated
+     * size and type.
+     *
+     * @param in {@link Mat} to be rotated
+     * @param dst Where to write the rotated image
+     * @return Result of processing
+     */
+    public CVPipeResult<Void> run(Mat in, Mat dst) {
+        this.dst = dst;
+        try {
+            return run(in);
+        } finally {
+            this.dst = null;
+        }
+    }
+
     /**
      * Process this pipe
      *
@@ -40,7 +59,13 @@ public class RotateImagePipe extends MutatingPipe<Mat, RotateImagePipe.RotateIma
      */
     @Override
     protected Void process(Mat in) {
-        Core.rotate(in, in, params.rotation().value);
+        var out = dst != null ? dst : in;
+        if (params.rotation() == ImageRotationMode.DEG_0) {
+            // Core.rotate leaves the output untouched for this
+            if (out != in) in.copyTo(out);
+            return null;
+        }
+        Core.rotate(in, out, params.rotation().value);
         return null;
     }
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfKeyPoint;
+import org.opencv.features2d.FastFeatureDetector;
+import org.photonvision.vision.opencv.Releasable;
+
+/**
+ * Runs FAST over horizontal strips of an image in parallel and merges the keypoints back into
+ * full-frame coordinates. Each strip is padded with a few rows of its neighbours so corners that sit
+ * on a strip boundary are still scored and non-max suppressed against their full neighbourhood, and
+ * each keypoint is only kept by the strip that owns its row.
+ */
+public class StripedFastDetector implements Releasable {
+    // FAST samples a radius 3 circle, plus one more pixel for non-max suppression
+    private static final int STRIP_BORDER = 4;
+    // MatOfKeyPoint rows are x, y, size, angle, response, octave, class_id
+    private static final int KEYPOINT_FIELDS = 7;
+
+    // Shared between every camera so we never spin up more workers than there are cores
+    private static final ForkJoinPool pool =
+            new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private StripTask[] strips = new StripTask[0];
+    private final DetectAllTask detectAll = new DetectAllTask();
+    private float[] mergeBuf = new float[0];
+
+    /**
+     * Detects FAST corners in {@code image}, split across {@code stripCount} strips.
+     *
+     * @param image The image to search
+     * @param mask Optional mask of where to search, or null for the whole image
+     * @param stripCount How many strips to split the image into, and so how many workers to use
+     * @param keypoints Output for the merged keypoints, in full-frame coordinates
+     */
+    public void detect(Mat image, Mat mask, int stripCount, MatOfKeyPoint keypoints) {
+        int rows = image.rows();
+        // Strips much thinner than their border would mostly be redundant work
+        stripCount = Math.max(1, Math.min(stripCount, rows / (STRIP_BORDER * 2)));
+        ensureStrips(stripCount);
+
+        int stripHeight = (rows + stripCount - 1) / stripCount;
+        for (int i = 0; i < stripCount; i++) {
+            strips[i].image = image;
+            strips[i].mask = mask;
+            strips[i].top = Math.min(rows, i * stripHeight);
+            strips[i].bottom = Math.min(rows, (i + 1) * stripHeight);
+            strips[i].reinitialize();
+        }
+
+        detectAll.reinitialize();
+        pool.invoke(detectAll);
+
+        int total = 0;
+        for (var strip : strips) total += strip.count;
+
+        if (mergeBuf.length < total * KEYPOINT_FIELDS) mergeBuf = new float[total * KEYPOINT_FIELDS];
+        int offset = 0;
+        for (var strip : strips) {
+            System.arraycopy(strip.buf, 0, mergeBuf, offset, strip.count * KEYPOINT_FIELDS);
+            offset += strip.count * KEYPOINT_FIELDS;
+            strip.image = null;
+            strip.mask = null;
+        }
+
+        keypoints.create(total, 1, CvType.CV_32FC(KEYPOINT_FIELDS));
+        if (total > 0) keypoints.put(0, 0, mergeBuf);
+    }
+
+    private void ensureStrips(int stripCount) {
+        if (strips.length == stripCount) return;
+
+        for (var strip : strips) strip.release();
+        strips = new StripTask[stripCount];
+        for (int i = 0; i < stripCount; i++) strips[i] = new StripTask();
+    }
+
+    @Override
+    public void release() {
+        for (var strip : strips) strip.release();
+        strips = new StripTask[0];
+    }
+
+    private class DetectAllTask extends RecursiveAction {
+        @Override
+        protected void compute() {
+            invokeAll(strips);
+        }
+    }
+
+    private static class StripTask extends RecursiveAction implements Releasable {
+        private final FastFeatureDetector fast = FastFeatureDetector.create();
+        private final MatOfKeyPoint keypoints = new MatOfKeyPoint();
+        private float[] buf = new float[0];
+
+        Mat image;
+        Mat mask;
+        int top;
+        int bottom;
+        int count;
+
+        @Override
+        protected void compute() {
+            int from = Math.max(0, top - STRIP_BORDER);
+            int to = Math.min(image.rows(), bottom + STRIP_BORDER);
+
+            Mat strip = image.submat(from, to, 0, image.cols());
+            if (mask != null) {
+                Mat maskStrip = mask.submat(from, to, 0, mask.cols());
+                fast.detect(strip, keypoints, maskStrip);
+                maskStrip.release();
+            } else {
+                fast.detect(strip, keypoints);
+            }
+            strip.release();
+
+            int found = (int) keypoints.total();
+            if (buf.length < found * KEYPOINT_FIELDS) buf = new float[found * KEYPOINT_FIELDS];
+            keypoints.get(0, 0, buf);
+
+            // Shift into full-frame coordinates, dropping corners that belong to a neighbouring strip
+            int kept = 0;
+            for (int i = 0; i < found; i++) {
+                int src = i * KEYPOINT_FIELDS;
+                float y = buf[src + 1] + from;
+                if (y < top || y >= bottom) continue;
+
+                int dst = kept * KEYPOINT_FIELDS;
+                if (dst != src) System.arraycopy(buf, src, buf, dst, KEYPOINT_FIELDS);
+                buf[dst + 1] = y;
+                kept++;
+            }
+            count = kept;
+        }
+
+        @Override
+        public void release() {
+            keypoints.release();
+        }
+    }
+}
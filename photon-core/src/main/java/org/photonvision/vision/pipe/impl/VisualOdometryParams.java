@@ -1,7 +1,10 @@
 package org.photonvision.vision.pipe.impl;
 
+import edu.wpi.first.math.geometry.Rotation3d;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
+import org.photonvision.common.dataflow.networktables.ImuRotationSubscriber;
+import org.photonvision.vision.calibration.CameraCalibrationCoefficients;
 import org.photonvision.vision.pipeline.CustomTestPipelineSettings;
 import org.photonvision.vision.pipeline.PipelineType;
 
@@ -15,6 +18,25 @@ public class VisualOdometryParams {
     public Point pp = new Point();
     public Mat cam_mat = new Mat();
 
+    public FeatureDetectionMode detectionMode = FeatureDetectionMode.Full;
+    public int featureGridRows = 4;
+    public int featureGridCols = 4;
+    public int featuresPerCell = 50;
+    public int maxFeatures = 1000;
+    public int detectionThreads = 1;
+    public boolean replenishFeatures = false;
+    public int featureMaskRadius = 10;
+    public boolean keyframeMode = false;
+    public double keyframeMinTrackedRatio = 0.7;
+    public EssentialMatMethod essentialMatMethod = EssentialMatMethod.RANSAC;
+    public int essentialMatMaxIters = 1000;
+    public boolean undistortFeatures = true;
+    public CameraCalibrationCoefficients calibration = null;
+    // Source of robot orientations to predict feature motion from, or null to track without a prior
+    public ImuRotationSubscriber imuRotations = null;
+    // Rotation from the robot frame to the camera frame
+    public Rotation3d imuCameraMount = new Rotation3d();
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -31,6 +53,21 @@ public class VisualOdometryParams {
         result = prime * result + (int) (temp ^ (temp >>> 32));
         temp = Double.doubleToLongBits(essentialMatThreshold);
         result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + detectionMode.hashCode();
+        result = prime * result + featureGridRows;
+        result = prime * result + featureGridCols;
+        result = prime * result + featuresPerCell;
+        result = prime * result + maxFeatures;
+        result = prime * result + detectionThreads;
+        result = prime * result + (replenishFeatures ? 1231 : 1237);
+        result = prime * result + featureMaskRadius;
+        result = prime * result + (keyframeMode ? 1231 : 1237);
+        temp = Double.doubleToLongBits(keyframeMinTrackedRatio);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + essentialMatMethod.hashCode();
+        result = prime * result + essentialMatMaxIters;
+        result = prime * result + (undistortFeatures ? 1231 : 1237);
+        result = prime * result + imuCameraMount.hashCode();
 
         return result;
     }
@@ -45,6 +82,22 @@ public class VisualOdometryParams {
         if(minFeatures != other.minFeatures) return false;
         if(essentialMatProb != other.essentialMatProb) return false;
         if(essentialMatThreshold != other.essentialMatThreshold) return false;
+        if(detectionMode != other.detectionMode) return false;
+        if(featureGridRows != other.featureGridRows) return false;
+        if(featureGridCols != other.featureGridCols) return false;
+        if(featuresPerCell != other.featuresPerCell) return false;
+        if(maxFeatures != other.maxFeatures) return false;
+        if(detectionThreads != other.detectionThreads) return false;
+        if(replenishFeatures != other.replenishFeatures) return false;
+        if(featureMaskRadius != other.featureMaskRadius) return false;
+        if(keyframeMode != other.keyframeMode) return false;
+        if(keyframeMinTrackedRatio != other.keyframeMinTrackedRatio) return false;
+        if(essentialMatMethod != other.essentialMatMethod) return false;
+        if(essentialMatMaxIters != other.essentialMatMaxIters) return false;
+        if(undistortFeatures != other.undistortFeatures) return false;
+        if(calibration != other.calibration) return false;
+        if(imuRotations != other.imuRotations) return false;
+        if(!imuCameraMount.equals(other.imuCameraMount)) return false;
         return true;
     }
 }
\ No newline at end of file
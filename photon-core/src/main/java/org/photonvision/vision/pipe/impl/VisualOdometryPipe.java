@@ -1,30 +1,42 @@
 package org.photonvision.vision.pipe.impl;
 
+import edu.wpi.first.math.MatBuilder;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Quaternion;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.numbers.N3;
 import org.opencv.core.*;
 import org.opencv.features2d.FastFeatureDetector;
 import org.opencv.imgproc.Imgproc;
+import org.photonvision.common.util.math.MathUtils;
+import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.pipe.CVPipe;
+import org.photonvision.vision.pipeline.result.VisualOdometryResult;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 import static org.opencv.calib3d.Calib3d.*;
 import static org.opencv.core.Core.meanStdDev;
 import static org.opencv.features2d.Features2d.drawKeypoints;
+import static org.opencv.video.Video.OPTFLOW_USE_INITIAL_FLOW;
 import static org.opencv.video.Video.calcOpticalFlowPyrLK;
 
-public class VisualOdometryPipe extends CVPipe<Mat, Transform3d, VisualOdometryParams>{
+public class VisualOdometryPipe extends CVPipe<Frame, VisualOdometryResult, VisualOdometryParams>{
     private static final Scalar WHITE = new Scalar(255, 255, 255);
     private static final Scalar BLUE = new Scalar(255, 0, 0);
     private static final Scalar RED = new Scalar(0, 0, 255);
+    private static final Size LK_WIN_SIZE = new Size(21, 21);
+    private static final TermCriteria LK_TERM_CRIT = new TermCriteria(TermCriteria.COUNT+TermCriteria.EPS, 30, 0.01);
+    // A few seconds of history at typical camera framerates
+    private static final int TRAJECTORY_CAPACITY = 512;
     public boolean hasReset = false;
 
     FastFeatureDetector fast = FastFeatureDetector.create();
+    private final StripedFastDetector stripedFast = new StripedFastDetector();
 
 
     MatOfByte status = new MatOfByte();
@@ -32,24 +44,78 @@ public class VisualOdometryPipe extends CVPipe<Mat, Transform3d, VisualOdometryP
     Mat E = new Mat();
     Mat R = new Mat();
     Mat t = new Mat();
-
-//    Mat R_f = new Mat();
-//    Mat t_f = new Mat();
-
+    private final Mat inlierMask = new Mat();
+
+    // Undistorted copies of the tracked features, used only for solving. Tracking itself has to stay
+    // in the distorted image's coordinates.
+    private FeatureUndistorter undistorter;
+    private final MatOfPoint2f prevUndistorted = new MatOfPoint2f();
+    private final MatOfPoint2f currUndistorted = new MatOfPoint2f();
+    private float[] undistortBuf = new float[0];
+    // Solver statistics for the most recent frame, zero when no solve was attempted
+    private int inlierCount = 0;
+    private long solveNanos = 0;
+
+    private final VisualOdometryTrajectory trajectory = new VisualOdometryTrajectory(TRAJECTORY_CAPACITY);
+
+    // A single camera only recovers the direction of each step, so recoverPose's t is unit length.
+    // The length of a step in meters is measured between consecutive AprilTag fixes, and is NaN until
+    // two fixes have been seen, in which case only rotation is chained onto the trajectory.
+    private double metersPerStep = Double.NaN;
+    private Pose3d lastTagFix = null;
+    private int stepsSinceTagFix = 0;
+
+    // The previous frame is double-buffered: each new frame is copied into the spare buffer, which is
+    // then swapped with prevImage, so steady-state frames reuse the same native allocations.
+    // In keyframe mode prevImage/prevFeatures hold the keyframe, which can be many frames old.
     Mat prevImage = new Mat();
+    private Mat spareImage = new Mat();
+    // How many features the keyframe started with, to measure how many have since been lost
+    private int keyframeFeatureCount = 0;
+    // Whether currFeatures holds where the keyframe's features were last seen, lined up with
+    // prevFeatures, so it can seed the next track
+    private boolean hasTrackedPositions = false;
+
+    // Capture timestamps of the current frame, the previous frame/keyframe and the frame
+    // currFeatures was last tracked into, used to look up IMU rotations between them
+    private long currTimestampNanos = 0;
+    private long prevTimestampNanos = 0;
+    private long lastTrackedTimestampNanos = 0;
+
+    // Basis change from our NWU camera frame to OpenCV's EDN camera frame
+    private static final Matrix<N3, N3> NWU_TO_EDN = MatBuilder.fill(Nat.N3(), Nat.N3(),
+            0, -1, 0,
+            0, 0, -1,
+            1, 0, 0);
     MatOfPoint2f prevFeatures = new MatOfPoint2f();
     MatOfPoint2f currFeatures = new MatOfPoint2f();
 
-    List<Point> currFeaturesList, prevFeaturesList;
+    // Scratch buffers for the tracked features, packed as x,y pairs. Only the first trackedCount
+    // points are valid, and they are reused between frames to avoid per-frame garbage.
+    private final MatOfFloat err = new MatOfFloat();
+    private byte[] statusBuf = new byte[0];
+    private float[] prevPointBuf = new float[0];
+    private float[] currPointBuf = new float[0];
+    private int trackedCount = 0;
 
-//    private Transform3d lastPosition = new Transform3d();
+    // Reused when drawing the tracks so we don't allocate a Point per feature
+    private final Point drawCurrPoint = new Point();
+    private final Point drawPrevPoint = new Point();
 
     public void release() {
         status.release();
+        keypoints.release();
+        replenishMask.release();
+        stripedFast.release();
+        err.release();
         E.release();
         R.release();
         t.release();
+        inlierMask.release();
+        prevUndistorted.release();
+        currUndistorted.release();
         prevImage.release();
+        spareImage.release();
         prevFeatures.release();
         currFeatures.release();;
         currFeatures = null;
@@ -57,167 +123,395 @@ public class VisualOdometryPipe extends CVPipe<Mat, Transform3d, VisualOdometryP
     }
 
     @Override
-    protected Transform3d process(Mat frame_mat) {
+    protected VisualOdometryResult process(Frame frame) {
+        Mat frame_mat = frame.processedImage.getMat();
+        currTimestampNanos = frame.timestampNanos;
         Transform3d tf = estimate(frame_mat);
 
-        if(keypoints != null)
+        if(!keypoints.empty())
             drawKeypoints(frame_mat, keypoints, frame_mat, RED);
 
-        if(currFeaturesList != null && prevFeaturesList != null)
-            for(int i = 0; i < currFeaturesList.size(); i++){
-                Point curPoint = currFeaturesList.get(i);
-                Point lastPoint = prevFeaturesList.get(i);
+        for(int i = 0; i < trackedCount; i++){
+            drawCurrPoint.x = currPointBuf[2 * i];
+            drawCurrPoint.y = currPointBuf[2 * i + 1];
+            drawPrevPoint.x = prevPointBuf[2 * i];
+            drawPrevPoint.y = prevPointBuf[2 * i + 1];
 
-                Imgproc.circle(frame_mat, curPoint, 5, WHITE, 1);
-                Imgproc.line(frame_mat, curPoint, lastPoint, BLUE, 1);
-            }
+            Imgproc.circle(frame_mat, drawCurrPoint, 5, WHITE, 1);
+            Imgproc.line(frame_mat, drawCurrPoint, drawPrevPoint, BLUE, 1);
+        }
+
+        double inlierRatio = currFeatures.rows() > 0 ? (double) inlierCount / currFeatures.rows() : 0;
 
-        if(tf != null) {
-            return tf;
+        if(tf == null) {
+            return new VisualOdometryResult(frame.timestampNanos, false, new Transform3d(), trajectory.getCurrentPose(),
+                    inlierRatio, solveNanos);
         }
-        return new Transform3d();
+
+        // Chain the motion onto the trajectory in the same NWU convention as the rest of our poses
+        Transform3d unitMotion = MathUtils.convertOpenCVtoPhotonTransform(tf);
+        stepsSinceTagFix++;
+        Transform3d motion;
+        if(Double.isNaN(metersPerStep))
+            motion = new Transform3d(new Translation3d(), unitMotion.getRotation());
+        else
+            motion = new Transform3d(unitMotion.getTranslation().times(metersPerStep), unitMotion.getRotation());
+        trajectory.append(frame.timestampNanos, motion);
+        return new VisualOdometryResult(frame.timestampNanos, true, motion, trajectory.getCurrentPose(),
+                inlierRatio, solveNanos);
     }
 
+    /**
+     * Restarts the accumulated trajectory from a known camera pose, for example one measured from
+     * AprilTags in the same frame.
+     */
+    public void resetPose(long timestampNanos, Pose3d pose) {
+        trajectory.reset(timestampNanos, pose);
+    }
 
-    private double featureTracking(Mat prevImage, Mat currImage, MatOfPoint2f prevFeatures, MatOfPoint2f currFeatures, MatOfByte status){
-        // 트래킹에 실패한 포인트들은 버린다.
-        MatOfFloat err = new MatOfFloat();
-        Size winSize = new Size(21, 21);
-        TermCriteria termcrit = new TermCriteria(TermCriteria.COUNT+TermCriteria.EPS, 30, 0.01);
+    /**
+     * Records a field-relative camera pose measured from AprilTags, which is used to give the unit
+     * length steps from the motion solve a scale in meters. The scale is the distance between this fix
+     * and the previous one, spread over the steps solved in between.
+     */
+    public void addTagFix(Pose3d fix) {
+        if(lastTagFix != null && stepsSinceTagFix > 0)
+            metersPerStep = lastTagFix.getTranslation().getDistance(fix.getTranslation()) / stepsSinceTagFix;
+        lastTagFix = fix;
+        stepsSinceTagFix = 0;
+    }
 
-        calcOpticalFlowPyrLK(prevImage, currImage, prevFeatures, currFeatures, status, err, winSize, 3, termcrit, 0, 0.01);
+    /** The current length of one solved step in meters, or NaN if no scale has been measured yet. */
+    public double getMetersPerStep() {
+        return metersPerStep;
+    }
 
-        double weight = 0;
-        // KLT 트래킹에 실패하거나 프레임 바깥으로 벗어난 포인트들은 버린다.
-        int indexCorrection = 0;
-        byte[] statusArray = status.toArray();
-        Point[] currFeaturesArray = currFeatures.toArray();
-        Point[] prevFeaturesArray = prevFeatures.toArray();
+    public VisualOdometryTrajectory getTrajectory() {
+        return trajectory;
+    }
 
-        currFeaturesList = new LinkedList<>(currFeatures.toList());
-        prevFeaturesList = new LinkedList<>(prevFeatures.toList());
 
-        for(int i = 0; i < statusArray.length; i++){
-            Point pt = currFeaturesArray[i];
+    private double featureTracking(Mat prevImage, Mat currImage, MatOfPoint2f prevFeatures, MatOfPoint2f currFeatures, MatOfByte status, int flags){
+        // 트래킹에 실패한 포인트들은 버린다.
+        calcOpticalFlowPyrLK(prevImage, currImage, prevFeatures, currFeatures, status, err, LK_WIN_SIZE, 3, LK_TERM_CRIT, flags, 0.01);
 
-            if((statusArray[i] == 0) || (pt.x < 0) || (pt.y < 0)){
-                prevFeaturesList.remove(i - indexCorrection);
-                currFeaturesList.remove(i - indexCorrection);
+        int count = (int) status.total();
+        ensureTrackingCapacity(count);
 
-                indexCorrection++;
-            } else {
-                Point before = prevFeaturesList.get(i - indexCorrection);
-                Point after = currFeaturesList.get(i - indexCorrection);
-                weight += (after.x - before.x) * (after.x - before.x) + (after.y - before.y)*(after.y - before.y);
-//                Point before = prevFeaturesArray[i - indexCorrection];
-//                weight += ((int)pt.x - before.x)*((int)pt.x - before.x) + ((int)pt.y - before.y)*((int)pt.y - before.y);
-            }
+        // Pull the points out as packed x,y floats so we can filter them without boxing every Point
+        status.get(0, 0, statusBuf);
+        prevFeatures.get(0, 0, prevPointBuf);
+        currFeatures.get(0, 0, currPointBuf);
+
+        double weight = 0;
+        // KLT 트래킹에 실패하거나 프레임 바깥으로 벗어난 포인트들은 버린다.
+        // Survivors are compacted towards the front of the buffers, preserving order
+        int kept = 0;
+        for(int i = 0; i < count; i++){
+            float currX = currPointBuf[2 * i];
+            float currY = currPointBuf[2 * i + 1];
+
+            if((statusBuf[i] == 0) || (currX < 0) || (currY < 0))
+                continue;
+
+            float prevX = prevPointBuf[2 * i];
+            float prevY = prevPointBuf[2 * i + 1];
+            weight += (currX - prevX) * (currX - prevX) + (currY - prevY) * (currY - prevY);
+
+            prevPointBuf[2 * kept] = prevX;
+            prevPointBuf[2 * kept + 1] = prevY;
+            currPointBuf[2 * kept] = currX;
+            currPointBuf[2 * kept + 1] = currY;
+            kept++;
         }
+        trackedCount = kept;
 
         // currFeatures, prevFeatures를 필터한 특징점으로 교체함
-        currFeatures.fromList(currFeaturesList);
-        prevFeatures.fromList(prevFeaturesList);
+        prevFeatures.create(kept, 1, CvType.CV_32FC2);
+        currFeatures.create(kept, 1, CvType.CV_32FC2);
+        if(kept > 0) {
+            prevFeatures.put(0, 0, prevPointBuf);
+            currFeatures.put(0, 0, currPointBuf);
+        }
 
-        if(prevFeaturesArray.length == 0)
+        if(count == 0)
             return 0;
-        return weight / prevFeaturesArray.length;
+        return weight / count;
     }
 
-    MatOfKeyPoint keypoints;
+    /**
+     * Grows the scratch buffers used by {@link #featureTracking} so they can hold at least {@code
+     * count} points, keeping their contents. Buffers are only ever grown, so steady-state frames do
+     * not allocate.
+     */
+    private void ensureTrackingCapacity(int count) {
+        if(statusBuf.length >= count) return;
+
+        // Leave some headroom so small increases in feature count don't reallocate every frame
+        int capacity = Math.max(count, statusBuf.length + (statusBuf.length >> 1));
+        statusBuf = Arrays.copyOf(statusBuf, capacity);
+        prevPointBuf = Arrays.copyOf(prevPointBuf, capacity * 2);
+        currPointBuf = Arrays.copyOf(currPointBuf, capacity * 2);
+    }
 
-    private MatOfPoint2f featureDetection(Mat image) {
+    // MatOfKeyPoint rows are x, y, size, angle, response, octave, class_id
+    private static final int KEYPOINT_FIELDS = 7;
+    private static final int KEYPOINT_RESPONSE = 4;
+    private static final Scalar MASK_KEEP = new Scalar(255);
+    private static final Scalar MASK_SKIP = new Scalar(0);
+
+    MatOfKeyPoint keypoints = new MatOfKeyPoint();
+    private float[] keypointBuf = new float[0];
+    private float[] detectedPointBuf = new float[0];
+    private long[] bucketOrder = new long[0];
+    private int[] bucketCounts = new int[0];
+
+    private final Mat replenishMask = new Mat();
+    private final Point maskPoint = new Point();
+
+    /**
+     * Runs FAST over the image and writes the selected corners into {@code features}, reusing its
+     * native buffer where possible.
+     */
+    private void featureDetection(Mat image, MatOfPoint2f features) {
 //        System.out.println("New points!");
-        keypoints = new MatOfKeyPoint();
+        int kept = detectFeatures(image, null, 0);
 
-        fast.detect(image, keypoints);
+        features.create(kept, 1, CvType.CV_32FC2);
+        if(kept > 0)
+            features.put(0, 0, detectedPointBuf);
+    }
 
-        KeyPoint[] kps = keypoints.toArray();
-        ArrayList<Point> arrayOfPoints = new ArrayList<>();
+    /**
+     * Tops up {@code features} with new corners found only in the parts of the image that are not
+     * already covered by a tracked feature, instead of throwing the surviving tracks away. Detection
+     * is masked around every existing feature, so the set keeps its track continuity and the new
+     * points fill the gaps.
+     */
+    private void replenishFeatures(Mat image, MatOfPoint2f features) {
+        int existing = features.rows();
+        ensureTrackingCapacity(existing);
+        features.get(0, 0, prevPointBuf);
+
+        replenishMask.create(image.rows(), image.cols(), CvType.CV_8UC1);
+        replenishMask.setTo(MASK_KEEP);
+        for(int i = 0; i < existing; i++){
+            maskPoint.x = prevPointBuf[2 * i];
+            maskPoint.y = prevPointBuf[2 * i + 1];
+            Imgproc.circle(replenishMask, maskPoint, params.featureMaskRadius, MASK_SKIP, -1);
+        }
+
+        int added = detectFeatures(image, replenishMask, existing);
+        if(added == 0) return;
 
-        for(int i = 0; i < kps.length; i++){
-            arrayOfPoints.add(kps[i].pt);
+        ensureTrackingCapacity(existing + added);
+        System.arraycopy(detectedPointBuf, 0, prevPointBuf, existing * 2, added * 2);
+
+        features.create(existing + added, 1, CvType.CV_32FC2);
+        features.put(0, 0, prevPointBuf);
+    }
+
+    /**
+     * Detects corners and selects which ones to keep according to the detection mode.
+     *
+     * @param image The image to search
+     * @param mask Optional mask of where to search, or null for the whole image
+     * @param existing How many already-tracked features are at the front of prevPointBuf. These count
+     *     towards the bucketing limits.
+     * @return The number of new points written to the front of detectedPointBuf
+     */
+    private int detectFeatures(Mat image, Mat mask, int existing) {
+        if(params.detectionThreads > 1)
+            stripedFast.detect(image, mask, params.detectionThreads, keypoints);
+        else if(mask != null)
+            fast.detect(image, keypoints, mask);
+        else
+            fast.detect(image, keypoints);
+
+        int count = (int) keypoints.total();
+        if(keypointBuf.length < count * KEYPOINT_FIELDS) {
+            keypointBuf = new float[count * KEYPOINT_FIELDS];
+            detectedPointBuf = new float[count * 2];
         }
+        keypoints.get(0, 0, keypointBuf);
 
-        MatOfPoint2f matOfPoint = new MatOfPoint2f();
-        matOfPoint.fromList(arrayOfPoints);
+        if(params.detectionMode == FeatureDetectionMode.Bucketed)
+            return bucketFeatures(count, image.cols(), image.rows(), existing);
 
-        return matOfPoint;
+        for(int i = 0; i < count; i++){
+            detectedPointBuf[2 * i] = keypointBuf[KEYPOINT_FIELDS * i];
+            detectedPointBuf[2 * i + 1] = keypointBuf[KEYPOINT_FIELDS * i + 1];
+        }
+        return count;
+    }
+
+    /**
+     * Picks at most {@code params.featuresPerCell} of the strongest corners from each cell of a {@code
+     * params.featureGridRows} by {@code params.featureGridCols} grid, up to {@code params.maxFeatures}
+     * in total. Spreading the features over the frame keeps tracking cost bounded and gives the
+     * essential matrix solver better conditioned input than one dense cluster of corners.
+     *
+     * @param existing How many already-tracked features are at the front of prevPointBuf
+     * @return The number of points written to the front of detectedPointBuf
+     */
+    private int bucketFeatures(int count, int width, int height, int existing) {
+        int rows = Math.max(1, params.featureGridRows);
+        int cols = Math.max(1, params.featureGridCols);
+
+        if(bucketOrder.length < count)
+            bucketOrder = new long[count];
+        if(bucketCounts.length < rows * cols)
+            bucketCounts = new int[rows * cols];
+        Arrays.fill(bucketCounts, 0, rows * cols, 0);
+
+        // Features we are already tracking use up their cell's budget first
+        for(int i = 0; i < existing; i++){
+            bucketCounts[bucketCell(prevPointBuf[2 * i], prevPointBuf[2 * i + 1], rows, cols, width, height)]++;
+        }
+
+        // FAST responses are non-negative, so their raw float bits sort in the same order as the
+        // values. Packing the index into the low bits lets us sort by response without boxing.
+        for(int i = 0; i < count; i++){
+            int responseBits = Float.floatToRawIntBits(Math.max(0f, keypointBuf[KEYPOINT_FIELDS * i + KEYPOINT_RESPONSE]));
+            bucketOrder[i] = ((long) responseBits << 32) | i;
+        }
+        Arrays.sort(bucketOrder, 0, count);
+
+        int kept = 0;
+        int limit = params.maxFeatures - existing;
+        // Walk from the strongest response down
+        for(int i = count - 1; i >= 0 && kept < limit; i--){
+            int idx = (int) bucketOrder[i];
+            float x = keypointBuf[KEYPOINT_FIELDS * idx];
+            float y = keypointBuf[KEYPOINT_FIELDS * idx + 1];
+
+            int cell = bucketCell(x, y, rows, cols, width, height);
+            if(bucketCounts[cell] >= params.featuresPerCell)
+                continue;
+            bucketCounts[cell]++;
+
+            detectedPointBuf[2 * kept] = x;
+            detectedPointBuf[2 * kept + 1] = y;
+            kept++;
+        }
+
+        return kept;
+    }
+
+    private static int bucketCell(float x, float y, int rows, int cols, int width, int height) {
+        int col = Math.min(cols - 1, Math.max(0, (int) (x * cols / width)));
+        int row = Math.min(rows - 1, Math.max(0, (int) (y * rows / height)));
+        return row * cols + col;
     }
 
     private Transform3d estimate(Mat currImage) {
-        Point[] prevFeaturesArray = prevFeatures.toArray();
+        int prevFeatureCount = prevFeatures.rows();
+        inlierCount = 0;
+        solveNanos = 0;
 
         if(prevImage.empty()){
-            prevImage = currImage.clone();
-            prevFeatures = featureDetection(prevImage);
+            storePrevImage(currImage);
+            featureDetection(prevImage, prevFeatures);
+            newKeyframeFeatures();
 //            System.out.println(4);
             return null;
-        }  else if (prevFeaturesArray.length < params.minFeatures) {
-            prevFeatures = featureDetection(prevImage);
-            prevImage = currImage.clone();
-
-            if(prevFeaturesArray.length <= 0){
+        }  else if (prevFeatureCount < params.minFeatures && params.replenishFeatures && prevFeatureCount > 0) {
+            // Fill in the gaps around the surviving tracks and carry on tracking this frame
+            replenishFeatures(prevImage, prevFeatures);
+            newKeyframeFeatures();
+            prevFeatureCount = prevFeatures.rows();
+        }  else if (prevFeatureCount < params.minFeatures) {
+            // Start over from this frame, so the new features belong to the image we track them from
+            storePrevImage(currImage);
+            featureDetection(prevImage, prevFeatures);
+            newKeyframeFeatures();
+
+            if(prevFeatureCount <= 0){
                 System.out.println("Can't detect features.");
             }
 
 
-            System.out.println("Feature count below minimum threshhold " + prevFeaturesArray.length + " < " + params.minFeatures);
+            System.out.println("Feature count below minimum threshhold " + prevFeatureCount + " < " + params.minFeatures);
 
             return null;
         }
 
-        double weight = featureTracking(prevImage, currImage, prevFeatures, currFeatures, status);
+        // When tracking against an older keyframe, start LK from where each feature was last seen
+        // rather than from its keyframe position, so it only has to search the last frame's motion
+        int flags = 0;
+        MatOfPoint2f seed = prevFeatures;
+        long seedTimestampNanos = prevTimestampNanos;
+        if(params.keyframeMode && hasTrackedPositions) {
+            flags = OPTFLOW_USE_INITIAL_FLOW;
+            seed = currFeatures;
+            seedTimestampNanos = lastTrackedTimestampNanos;
+        }
+        if(predictFromImu(seed, seedTimestampNanos))
+            flags = OPTFLOW_USE_INITIAL_FLOW;
 
-        if(prevFeaturesArray.length <= 0){
-            prevFeatures = featureDetection(currImage);
-            prevImage = currImage.clone();
+        double weight = featureTracking(prevImage, currImage, prevFeatures, currFeatures, status, flags);
+
+        if(prevFeatureCount <= 0){
+            featureDetection(currImage, prevFeatures);
+            storePrevImage(currImage);
+            newKeyframeFeatures();
 //            System.out.println(2);
             return null;
         }
 
-        if(weight < params.imageDifferenceThreshold) {
-            prevImage = currImage.clone();
-            currFeatures.copyTo(prevFeatures);
+        if(params.keyframeMode) {
+            boolean enoughParallax = weight >= params.imageDifferenceThreshold;
+            boolean lostTracks = currFeatures.rows() < keyframeFeatureCount * params.keyframeMinTrackedRatio;
+
+            if(!enoughParallax && !lostTracks) {
+                // Nothing new to learn from this frame, so keep the keyframe and skip the solve
+                hasTrackedPositions = true;
+                lastTrackedTimestampNanos = currTimestampNanos;
+                return null;
+            }
+            if(!enoughParallax) {
+                // Too many tracks lost to keep this keyframe, but the baseline is still too small to
+                // solve reliably
+                promoteKeyframe(currImage);
+                return null;
+            }
+        } else if(weight < params.imageDifferenceThreshold) {
+            promoteKeyframe(currImage);
 
             System.out.println("Weight below minimum threshhold " + weight + " < " + params.imageDifferenceThreshold);
             return null;
         }
 
-        try {
-            E = findEssentialMat(prevFeatures, currFeatures, params.cam_mat);// params.focal, params.pp);//, RANSAC, params.essentialMatProb, params.essentialMatThreshold);
-//            System.out.println(E.size());
-
-//            double sum =0;
-//            for(int x =0; x<E.width(); x++)
-//                for(int y = 0; y<E.height(); y++)
-//                    sum += E.get(y,x)[0];
-//
-//            System.out.println(sum);
-
+        long solveStartNanos = System.nanoTime();
+        MatOfPoint2f solvePrev = prevFeatures;
+        MatOfPoint2f solveCurr = currFeatures;
+        if(params.undistortFeatures && params.calibration != null) {
+            undistortTrackedFeatures(currImage.cols(), currImage.rows());
+            solvePrev = prevUndistorted;
+            solveCurr = currUndistorted;
+        }
 
-//            System.out.println("npoints = " + prevFeatures.checkVector(2));
-//            System.out.println("mask.checkVector(1) = " + status.checkVector(1));
-            recoverPose(E, currFeatures, prevFeatures, R, t);//, params.cam_mat);// params.focal, params.pp);//, status);
+        try {
+            // Solve with the points in prev -> curr order, so R and t map points in the previous camera
+            // frame into the current one
+            if(!params.cam_mat.empty()) {
+                E = findEssentialMat(solvePrev, solveCurr, params.cam_mat, params.essentialMatMethod.flag,
+                        params.essentialMatProb, params.essentialMatThreshold, params.essentialMatMaxIters, inlierMask);
+                inlierCount = recoverPose(E, solvePrev, solveCurr, params.cam_mat, R, t, inlierMask);
+            } else {
+                E = findEssentialMat(solvePrev, solveCurr, params.focal, params.pp, params.essentialMatMethod.flag,
+                        params.essentialMatProb, params.essentialMatThreshold, params.essentialMatMaxIters, inlierMask);
+                inlierCount = recoverPose(E, solvePrev, solveCurr, R, t, params.focal, params.pp, inlierMask);
+            }
         } catch (Exception e){
-            prevImage = currImage.clone();
-            currFeatures.copyTo(prevFeatures);
+            promoteKeyframe(currImage);
             e.printStackTrace();
             return null;
+        } finally {
+            solveNanos = System.nanoTime() - solveStartNanos;
         }
 
-//        if(R_f.empty()) {
-//            R_f = R.clone();
-//            t_f = t.clone();
-//        } else {
-////            Mat tmp = new Mat();
-////            Core.gemm(R_f, t, 1, new Mat(), 0, tmp);
-////            Core.add(t_f, tmp, t_f);
-////            Core.multiply(R, R_f, R_f);
-////            Core.gemm(R, R_f, 1, new Mat(), 0, R_f, 0);
-//        }
-
-        prevImage = currImage.clone();
-        currFeatures.copyTo(prevFeatures);
+        promoteKeyframe(currImage);
 
 //        System.out.println(R.size());
 
@@ -225,9 +519,9 @@ public class VisualOdometryPipe extends CVPipe<Mat, Transform3d, VisualOdometryP
         double pos_y = t.get(1,0)[0];
         double pos_z = t.get(2,0)[0];
 //
-        double roll  = Math.atan2( R.get(2,1)[0],R.get(2,2)[0]) * Math.PI / 180;
-        double pitch = Math.atan2(-R.get(2,0)[0],Math.sqrt(Math.pow(R.get(2,1)[0],2)+Math.pow(R.get(2,2)[0],2))) * Math.PI / 180;
-        double yaw   = Math.atan2 (R.get(1,0)[0],R.get(0,0)[0]) * Math.PI / 180;
+        double roll  = Math.atan2( R.get(2,1)[0],R.get(2,2)[0]);
+        double pitch = Math.atan2(-R.get(2,0)[0],Math.sqrt(Math.pow(R.get(2,1)[0],2)+Math.pow(R.get(2,2)[0],2)));
+        double yaw   = Math.atan2 (R.get(1,0)[0],R.get(0,0)[0]);
 
 
 //        double rot_w = Math.sqrt(1.0 + R.get(0,0)[0] + R.get(1,1)[0] + R.get(2,2)[0]) / 2.0;
@@ -235,17 +529,124 @@ public class VisualOdometryPipe extends CVPipe<Mat, Transform3d, VisualOdometryP
 //        double rot_y = (R.get(0,2)[0] - R.get(2,0)[0]) / (rot_w*4);
 //        double rot_z = (R.get(1,0)[0] - R.get(0,1)[0]) / (rot_w*4);
 
+        // R and t take points from the previous camera frame to the current one, so the camera itself
+        // moved by the inverse of that
         return new Transform3d(
-//                new Translation3d(),
                 new Translation3d(pos_x, pos_y, pos_z),
-//                new Rotation3d()
                 new Rotation3d(roll, pitch, yaw)
-        );
+        ).inverse();
+    }
+
+    /**
+     * Uses the IMU to predict where {@code seed}'s features will be in the current frame, and writes
+     * the prediction into currFeatures so LK can start its search from there. Over the short time
+     * between frames the image motion from a turn is dominated by rotation, which maps pixels through
+     * the homography K * R * K^-1 regardless of depth, so this keeps tracks alive through fast turns
+     * that would otherwise leave the LK search window.
+     *
+     * @param seed The features to predict from, either prevFeatures or currFeatures
+     * @param seedTimestampNanos When the seed positions were captured
+     * @return Whether a prediction was written to currFeatures
+     */
+    private boolean predictFromImu(MatOfPoint2f seed, long seedTimestampNanos) {
+        if(params.imuRotations == null || params.cam_mat.empty())
+            return false;
+
+        var from = params.imuRotations.getRotation(seedTimestampNanos);
+        var to = params.imuRotations.getRotation(currTimestampNanos);
+        if(from.isEmpty() || to.isEmpty())
+            return false;
+
+        // Both orientations are robot-to-field. Chaining through the camera mount gives the rotation
+        // that takes points in the seed camera's frame into the current camera's frame.
+        var mount = params.imuCameraMount.toMatrix();
+        var relative = mount.transpose().times(to.get().toMatrix().transpose()).times(from.get().toMatrix()).times(mount);
+        var r = NWU_TO_EDN.times(relative).times(NWU_TO_EDN.transpose());
+
+        double fx = params.cam_mat.get(0, 0)[0];
+        double fy = params.cam_mat.get(1, 1)[0];
+        double cx = params.cam_mat.get(0, 2)[0];
+        double cy = params.cam_mat.get(1, 2)[0];
+
+        int count = seed.rows();
+        ensureTrackingCapacity(count);
+        seed.get(0, 0, currPointBuf);
+
+        for(int i = 0; i < count; i++){
+            double rayX = (currPointBuf[2 * i] - cx) / fx;
+            double rayY = (currPointBuf[2 * i + 1] - cy) / fy;
+
+            double x = r.get(0, 0) * rayX + r.get(0, 1) * rayY + r.get(0, 2);
+            double y = r.get(1, 0) * rayX + r.get(1, 1) * rayY + r.get(1, 2);
+            double z = r.get(2, 0) * rayX + r.get(2, 1) * rayY + r.get(2, 2);
+            // Rotated behind the camera, so leave the point where it was
+            if(z <= 0)
+                continue;
+
+            currPointBuf[2 * i] = (float) (fx * x / z + cx);
+            currPointBuf[2 * i + 1] = (float) (fy * y / z + cy);
+        }
+
+        currFeatures.create(count, 1, CvType.CV_32FC2);
+        if(count > 0)
+            currFeatures.put(0, 0, currPointBuf);
+        return true;
+    }
+
+    /**
+     * Fills prevUndistorted and currUndistorted from the features left in the tracking buffers by the
+     * last call to {@link #featureTracking}. The undistortion grid is only rebuilt when the
+     * calibration or resolution changes.
+     */
+    private void undistortTrackedFeatures(int width, int height) {
+        if(undistorter == null || !undistorter.matches(params.calibration, width, height))
+            undistorter = new FeatureUndistorter(params.calibration, width, height);
+
+        if(undistortBuf.length < trackedCount * 2)
+            undistortBuf = new float[prevPointBuf.length];
+
+        undistorter.undistort(prevPointBuf, undistortBuf, trackedCount);
+        prevUndistorted.create(trackedCount, 1, CvType.CV_32FC2);
+        prevUndistorted.put(0, 0, undistortBuf);
+
+        undistorter.undistort(currPointBuf, undistortBuf, trackedCount);
+        currUndistorted.create(trackedCount, 1, CvType.CV_32FC2);
+        currUndistorted.put(0, 0, undistortBuf);
+    }
+
+    /**
+     * Makes the current frame, and the features tracked into it, the reference that the following
+     * frames are tracked against. Outside of keyframe mode this happens every frame.
+     */
+    private void promoteKeyframe(Mat currImage) {
+        storePrevImage(currImage);
+        currFeatures.copyTo(prevFeatures);
+        newKeyframeFeatures();
+    }
+
+    /** Records that prevFeatures has been replaced, and no longer lines up with currFeatures. */
+    private void newKeyframeFeatures() {
+        keyframeFeatureCount = prevFeatures.rows();
+        hasTrackedPositions = false;
+    }
+
+    /**
+     * Keeps a copy of the given frame as the previous image for the next call to {@link #estimate}.
+     * The frame is copied into a reused buffer rather than cloned, since the caller's Mat is released
+     * once the pipeline has finished with it.
+     */
+    private void storePrevImage(Mat currImage) {
+        currImage.copyTo(spareImage);
+        prevTimestampNanos = currTimestampNanos;
+
+        Mat tmp = prevImage;
+        prevImage = spareImage;
+        spareImage = tmp;
     }
 
     public void reset() {
-//        prevImage.release();
-        prevImage = new Mat();
+        // Drops the data but keeps the Mat around, so the next frame is treated as the first one
+        prevImage.release();
         System.out.println("Reset");
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The camera trajectory built up by chaining visual odometry motions together. The most recent
+ * poses are kept in a fixed-size ring buffer along with the capture timestamp of the frame they were
+ * estimated from, so older poses are overwritten instead of growing the history forever.
+ */
+public class VisualOdometryTrajectory {
+    private final long[] timestampsNanos;
+    private final Pose3d[] poses;
+
+    // Index of the newest entry, and how many entries are valid
+    private int head = -1;
+    private int size = 0;
+
+    private Pose3d currentPose = new Pose3d();
+    private Transform3d lastMotion = new Transform3d();
+
+    public VisualOdometryTrajectory(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1");
+
+        timestampsNanos = new long[capacity];
+        poses = new Pose3d[capacity];
+    }
+
+    /**
+     * Applies a camera motion on top of the current pose and records the result.
+     *
+     * @param timestampNanos Capture timestamp of the frame the motion ends at
+     * @param motion The motion of the camera since the previous frame, in the camera's frame
+     */
+    public void append(long timestampNanos, Transform3d motion) {
+        lastMotion = motion;
+        currentPose = currentPose.transformBy(motion);
+        record(timestampNanos, currentPose);
+    }
+
+    /**
+     * Throws away the history and restarts the trajectory from a known pose, such as one from an
+     * AprilTag fix.
+     *
+     * @param timestampNanos Capture timestamp of the frame the pose was measured in
+     * @param pose The known camera pose
+     */
+    public void reset(long timestampNanos, Pose3d pose) {
+        head = -1;
+        size = 0;
+        Arrays.fill(poses, null);
+
+        lastMotion = new Transform3d();
+        currentPose = pose;
+        record(timestampNanos, pose);
+    }
+
+    private void record(long timestampNanos, Pose3d pose) {
+        head = (head + 1) % poses.length;
+        timestampsNanos[head] = timestampNanos;
+        poses[head] = pose;
+        size = Math.min(size + 1, poses.length);
+    }
+
+    /** The camera pose after the most recent motion or reset. */
+    public Pose3d getCurrentPose() {
+        return currentPose;
+    }
+
+    /** The most recent frame-to-frame motion, or an identity transform right after a reset. */
+    public Transform3d getLastMotion() {
+        return lastMotion;
+    }
+
+    /** How many poses are currently held. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param age How many entries back to look, where 0 is the newest
+     * @return The pose recorded {@code age} entries ago
+     */
+    public Pose3d getPose(int age) {
+        return poses[index(age)];
+    }
+
+    /**
+     * @param age How many entries back to look, where 0 is the newest
+     * @return The capture timestamp of the pose recorded {@code age} entries ago
+     */
+    public long getTimestampNanos(int age) {
+        return timestampsNanos[index(age)];
+    }
+
+    /**
+     * Finds the newest pose that was captured no later than the given time.
+     *
+     * @param timestampNanos The time to look up
+     * @return The pose, or empty if every held pose is newer than the given time
+     */
+    public Optional<Pose3d> getPoseAt(long timestampNanos) {
+        for (int age = 0; age < size; age++) {
+            int i = index(age);
+            if (timestampsNanos[i] <= timestampNanos) return Optional.of(poses[i]);
+        }
+        return Optional.empty();
+    }
+
+    private int index(int age) {
+        if (age < 0 || age >= size) {
+            throw new IndexOutOfBoundsException("Age " + age + " out of bounds for size " + size);
+        }
+        return Math.floorMod(head - age, poses.length);
+    }
+}
@@ -90,6 +90,16 @@ public class AdvancedPipelineSettings extends CVPipelineSettings {
     public int cornerDetectionSideCount = 4;
     public double cornerDetectionAccuracyPercentage = 10;
 
+    // Region of interest, as percentages of the frame width and height. Only this part of the frame
+    // is colour converted and searched for targets.
+    public boolean roiEnabled = false;
+    public DoubleCouple roiRangeX = new DoubleCouple(0.0, 100.0);
+    public DoubleCouple roiRangeY = new DoubleCouple(0.0, 100.0);
+    // Narrow the region of interest to the last frame's targets, grown on each side by this
+    // percentage of their size. Falls back to the static region when nothing was found.
+    public boolean dynamicRoiEnabled = false;
+    public double dynamicRoiMarginPercent = 50;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -124,7 +134,12 @@ public class AdvancedPipelineSettings extends CVPipelineSettings {
                 && contourGroupingMode == that.contourGroupingMode
                 && contourIntersection == that.contourIntersection
                 && Objects.equals(targetModel, that.targetModel)
-                && cornerDetectionStrategy == that.cornerDetectionStrategy;
+                && cornerDetectionStrategy == that.cornerDetectionStrategy
+                && roiEnabled == that.roiEnabled
+                && Objects.equals(roiRangeX, that.roiRangeX)
+                && Objects.equals(roiRangeY, that.roiRangeY)
+                && dynamicRoiEnabled == that.dynamicRoiEnabled
+                && Double.compare(that.dynamicRoiMarginPercent, dynamicRoiMarginPercent) == 0;
     }
 
     @Override
@@ -158,6 +173,11 @@ public class AdvancedPipelineSettings extends CVPipelineSettings {
                 cornerDetectionUseConvexHulls,
                 cornerDetectionExactSideCount,
                 cornerDetectionSideCount,
-                cornerDetectionAccuracyPercentage);
+                cornerDetectionAccuracyPercentage,
+                roiEnabled,
+                roiRangeX,
+                roiRangeY,
+                dynamicRoiEnabled,
+                dynamicRoiMarginPercent);
     }
 }
@@ -29,6 +29,7 @@ import edu.wpi.first.math.util.Units;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.opencv.core.Rect;
 import org.photonvision.common.configuration.ConfigManager;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.estimation.TargetModel;
@@ -54,6 +55,8 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
             new AprilTagPoseEstimatorPipe();
     private final MultiTargetPNPPipe multiTagPNPPipe = new MultiTargetPNPPipe();
     private final CalculateFPSPipe calculateFPSPipe = new CalculateFPSPipe();
+    private final RegionOfInterest regionOfInterest = new RegionOfInterest();
+    private volatile Rect requestedRoi = null;
 
     private static final FrameThresholdType PROCESSING_TYPE = FrameThresholdType.GREYSCALE;
 
@@ -134,8 +137,13 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
             return new CVPipelineResult(frame.sequenceID, 0, 0, List.of(), frame);
         }
 
+        Rect roi =
+                frame.roi != null
+                        ? frame.roi
+                        : regionOfInterest.get(
+                                settings, frameStaticProperties.imageWidth, frameStaticProperties.imageHeight);
         CVPipeResult<List<AprilTagDetection>> tagDetectionPipeResult =
-                aprilTagDetectionPipe.run(frame.processedImage);
+                aprilTagDetectionPipe.run(frame.processedImage, roi);
         sumPipeNanosElapsed += tagDetectionPipeResult.nanosElapsed;
 
         List<AprilTagDetection> detections = tagDetectionPipeResult.output;
@@ -232,6 +240,11 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
             }
         }
 
+        regionOfInterest.update(targetList);
+        requestedRoi =
+                regionOfInterest.get(
+                        settings, frameStaticProperties.imageWidth, frameStaticProperties.imageHeight);
+
         var fpsResult = calculateFPSPipe.run(null);
         var fps = fpsResult.output;
 
@@ -239,6 +252,11 @@ public class AprilTagPipeline extends CVPipeline<CVPipelineResult, AprilTagPipel
                 frame.sequenceID, sumPipeNanosElapsed, fps, targetList, multiTagResult, frame);
     }
 
+    @Override
+    public Rect getRequestedRoi() {
+        return requestedRoi;
+    }
+
     @Override
     public void release() {
         aprilTagDetectionPipe.release();
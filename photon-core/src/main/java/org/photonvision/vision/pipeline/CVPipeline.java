@@ -17,6 +17,7 @@
 
 package org.photonvision.vision.pipeline;
 
+import org.opencv.core.Rect;
 import org.photonvision.vision.camera.QuirkyCamera;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameStaticProperties;
@@ -58,6 +59,16 @@ public abstract class CVPipeline<R extends CVPipelineResult, S extends CVPipelin
 
     protected abstract R process(Frame frame, S settings);
 
+    /**
+     * The part of the next frame this pipeline will look at, so frame providers can skip converting
+     * the rest. Stubbed out, but override if needed.
+     *
+     * @return The region in rotated frame pixels, or null for the whole frame
+     */
+    public Rect getRequestedRoi() {
+        return null;
+    }
+
     public S getSettings() {
         return settings;
     }
@@ -57,6 +57,8 @@ public class CVPipelineSettings implements Cloneable {
     public boolean ledMode = false;
     public boolean inputShouldShow = false;
     public boolean outputShouldShow = true;
+    // Frames beyond this rate are dropped before the pipeline runs. 0 processes every frame.
+    public double maxProcessingFps = 0;
 
     public boolean cameraAutoWhiteBalance = false;
     public double cameraWhiteBalanceTemp = 4000;
@@ -82,7 +84,8 @@ public class CVPipelineSettings implements Cloneable {
                 && pipelineNickname.equals(that.pipelineNickname)
                 && streamingFrameDivisor == that.streamingFrameDivisor
                 && inputShouldShow == that.inputShouldShow
-                && outputShouldShow == that.outputShouldShow;
+                && outputShouldShow == that.outputShouldShow
+                && Double.compare(that.maxProcessingFps, maxProcessingFps) == 0;
     }
 
     @Override
@@ -104,7 +107,8 @@ public class CVPipelineSettings implements Cloneable {
                 streamingFrameDivisor,
                 ledMode,
                 inputShouldShow,
-                outputShouldShow);
+                outputShouldShow,
+                maxProcessingFps);
     }
 
     @Override
@@ -149,6 +153,8 @@ public class CVPipelineSettings implements Cloneable {
                 + inputShouldShow
                 + ", outputShouldShow="
                 + outputShouldShow
+                + ", maxProcessingFps="
+                + maxProcessingFps
                 + '}';
     }
 }
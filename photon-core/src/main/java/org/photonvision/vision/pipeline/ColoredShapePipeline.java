@@ -21,6 +21,7 @@ import edu.wpi.first.math.Pair;
 import java.util.Arrays;
 import java.util.List;
 import org.opencv.core.Point;
+import org.opencv.core.Rect;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameThresholdType;
 import org.photonvision.vision.opencv.CVShape;
@@ -48,6 +49,8 @@ public class ColoredShapePipeline
     private final Draw2dTargetsPipe draw2DTargetsPipe = new Draw2dTargetsPipe();
     private final Draw3dTargetsPipe draw3dTargetsPipe = new Draw3dTargetsPipe();
     private final CalculateFPSPipe calculateFPSPipe = new CalculateFPSPipe();
+    private final RegionOfInterest regionOfInterest = new RegionOfInterest();
+    private volatile Rect requestedRoi = null;
 
     private final Point[] rectPoints = new Point[4];
 
@@ -160,8 +163,13 @@ public class ColoredShapePipeline
     protected CVPipelineResult process(Frame frame, ColoredShapePipelineSettings settings) {
         long sumPipeNanosElapsed = 0L;
 
+        Rect roi =
+                frame.roi != null
+                        ? frame.roi
+                        : regionOfInterest.get(
+                                settings, frameStaticProperties.imageWidth, frameStaticProperties.imageHeight);
         CVPipeResult<List<Contour>> findContoursResult =
-                findContoursPipe.run(frame.processedImage.getMat());
+                findContoursPipe.run(frame.processedImage.getMat(), roi);
         sumPipeNanosElapsed += findContoursResult.nanosElapsed;
 
         CVPipeResult<List<Contour>> speckleRejectResult =
@@ -214,9 +222,19 @@ public class ColoredShapePipeline
             targetList = collect2dTargetsResult.output;
         }
 
+        regionOfInterest.update(targetList);
+        requestedRoi =
+                regionOfInterest.get(
+                        settings, frameStaticProperties.imageWidth, frameStaticProperties.imageHeight);
+
         var fpsResult = calculateFPSPipe.run(null);
         var fps = fpsResult.output;
 
         return new CVPipelineResult(frame.sequenceID, sumPipeNanosElapsed, fps, targetList, frame);
     }
+
+    @Override
+    public Rect getRequestedRoi() {
+        return requestedRoi;
+    }
 }
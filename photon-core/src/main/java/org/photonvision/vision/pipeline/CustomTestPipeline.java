@@ -10,6 +10,7 @@ import org.opencv.core.*;
 import org.opencv.core.Point;
 import org.opencv.imgproc.Imgproc;
 import org.photonvision.common.configuration.ConfigManager;
+import org.photonvision.common.dataflow.networktables.ImuRotationSubscriber;
 import org.photonvision.common.util.ColorHelper;
 import org.photonvision.common.util.math.MathUtils;
 import org.photonvision.estimation.TargetModel;
@@ -20,6 +21,7 @@ import org.photonvision.vision.frame.FrameThresholdType;
 import org.photonvision.vision.pipe.CVPipe;
 import org.photonvision.vision.pipe.impl.*;
 import org.photonvision.vision.pipeline.result.CVPipelineResult;
+import org.photonvision.vision.pipeline.result.VisualOdometryResult;
 import org.photonvision.vision.target.TrackedTarget;
 
 import java.awt.*;
@@ -37,8 +39,11 @@ public class CustomTestPipeline extends CVPipeline<CVPipelineResult, CustomTestP
     private final AprilTagDetectionPipe aprilTagDetectionPipe = new AprilTagDetectionPipe();
     private final AprilTagPoseEstimatorPipe singleTagPoseEstimatorPipe = new AprilTagPoseEstimatorPipe();
     private final MultiTargetPNPPipe multiTagPNPPipe = new MultiTargetPNPPipe();
+    // Only used to crop tag detection, VO still needs the whole frame so we never ask the provider for it
+    private final RegionOfInterest tagRegionOfInterest = new RegionOfInterest();
 
     private final VisualOdometryPipe visualOdometryPipe = new VisualOdometryPipe();
+    private ImuRotationSubscriber imuRotations;
 
     private List<TrackedTarget> previousAprilTags;
 
@@ -62,6 +67,32 @@ public class CustomTestPipeline extends CVPipeline<CVPipelineResult, CustomTestP
         VOConfig.imageDifferenceThreshold = settings.imageDifferenceThreshold;
         VOConfig.essentialMatProb = settings.essentialMatProb;
         VOConfig.essentialMatThreshold = settings.essentialMatThreshold;
+        VOConfig.detectionMode = settings.featureDetectionMode;
+        VOConfig.featureGridRows = settings.featureGridRows;
+        VOConfig.featureGridCols = settings.featureGridCols;
+        VOConfig.featuresPerCell = settings.featuresPerCell;
+        VOConfig.maxFeatures = settings.maxFeatures;
+        VOConfig.detectionThreads = Math.max(1, settings.featureDetectionThreads);
+        VOConfig.replenishFeatures = settings.replenishFeatures;
+        VOConfig.featureMaskRadius = Math.max(1, settings.featureMaskRadius);
+        VOConfig.keyframeMode = settings.keyframeMode;
+        VOConfig.keyframeMinTrackedRatio = settings.keyframeMinTrackedRatio;
+        VOConfig.essentialMatMethod = settings.essentialMatMethod;
+        VOConfig.essentialMatMaxIters = Math.max(1, settings.essentialMatMaxIters);
+        VOConfig.undistortFeatures = settings.undistortFeatures;
+
+        if (settings.useImuRotationPrior && imuRotations == null) {
+            imuRotations = new ImuRotationSubscriber();
+        } else if (!settings.useImuRotationPrior && imuRotations != null) {
+            imuRotations.close();
+            imuRotations = null;
+        }
+        VOConfig.imuRotations = imuRotations;
+        VOConfig.imuCameraMount =
+                new Rotation3d(
+                        Units.degreesToRadians(settings.imuCameraRoll),
+                        Units.degreesToRadians(settings.imuCameraPitch),
+                        Units.degreesToRadians(settings.imuCameraYaw));
 
         if(frameStaticProperties.cameraCalibration != null) {
             cam_mat = frameStaticProperties.cameraCalibration.getCameraIntrinsicsMat();
@@ -76,6 +107,7 @@ public class CustomTestPipeline extends CVPipeline<CVPipelineResult, CustomTestP
             double height = frameStaticProperties.imageHeight;
 
             VOConfig.cam_mat = cam_mat;
+            VOConfig.calibration = frameStaticProperties.cameraCalibration;
 
 //            VOConfig.focal = 2;
 //            VOConfig.pp.x = x;
@@ -179,7 +211,8 @@ public class CustomTestPipeline extends CVPipeline<CVPipelineResult, CustomTestP
 //        return new CVPipelineResult(frame.sequenceID, total_proc_time, fps, result, frame);
 
         CVPipe.CVPipeResult<List<AprilTagDetection>> tagDetectionPipeResult;
-        tagDetectionPipeResult = aprilTagDetectionPipe.run(frame.processedImage);
+        Rect tagRoi = tagRegionOfInterest.get(settings, frameStaticProperties.imageWidth, frameStaticProperties.imageHeight);
+        tagDetectionPipeResult = aprilTagDetectionPipe.run(frame.processedImage, tagRoi);
         sumPipeNanosElapsed += tagDetectionPipeResult.nanosElapsed;
 
         List<AprilTagDetection> detections = tagDetectionPipeResult.output;
@@ -275,43 +308,59 @@ public class CustomTestPipeline extends CVPipeline<CVPipelineResult, CustomTestP
                 targetList.add(target);
             }
         }
-
-//        if(!targetList.isEmpty()) {
-//            previousAprilTags = targetList;
-//            visualOdometryPipe.hasReset = false;
-//        } else if(previousAprilTags != null) {
-//            if(!visualOdometryPipe.hasReset){
-//                visualOdometryPipe.reset();
-//                visualOdometryPipe.hasReset = true;
-//            }
-
-            CVPipe.CVPipeResult<Transform3d> VOResult = visualOdometryPipe.run(frame.processedImage.getMat());
-            sumPipeNanosElapsed += VOResult.nanosElapsed;
-
-            double x = VOResult.output.getX();
-            double y = VOResult.output.getY();
-
-            double ang = Math.atan2(y,x);
-            double mag = Math.sqrt(x*x+y*y);
-
-            System.out.println("Offset X: " + x + " Y: " + y);
-            System.out.println("Offset A: " + ang + " M: " + mag);
-//            System.out.println("X: " + VOResult.output.getTranslation());
-
-//            for(int i = 0; i < previousAprilTags.size(); i++){
-//                TrackedTarget old = previousAprilTags.get(i);
-//                old.setBestCameraToTarget3d(old.getBestCameraToTarget3d().plus(VOResult.output));
-//
-//            }
-
-//        }
+        tagRegionOfInterest.update(targetList);
+
+        CVPipe.CVPipeResult<VisualOdometryResult> VOResult = visualOdometryPipe.run(frame);
+        sumPipeNanosElapsed += VOResult.nanosElapsed;
+        VisualOdometryResult visualOdometryResult = VOResult.output;
+
+        // AprilTag fixes are metric, so they give VO the scale its steps are missing. A fix is also
+        // far better than anything VO has accumulated, so optionally restart the trajectory from it.
+        // This runs after VO so this frame's motion isn't applied on top of the fix.
+        Optional<Pose3d> tagFix = getTagFix(multiTagResult, targetList);
+        if (tagFix.isPresent()) {
+            visualOdometryPipe.addTagFix(tagFix.get());
+            if (settings.resetPoseOnTagFix) {
+                visualOdometryPipe.resetPose(frame.timestampNanos, tagFix.get());
+                visualOdometryResult =
+                        new VisualOdometryResult(
+                                frame.timestampNanos,
+                                visualOdometryResult.hasMotion,
+                                visualOdometryResult.motion,
+                                tagFix.get(),
+                                visualOdometryResult.inlierRatio,
+                                visualOdometryResult.solveNanos);
+            }
+        }
 
         var fpsResult = calculateFPSPipe.run(null);
         var fps = fpsResult.output;
 
-        return new CVPipelineResult(
+        var result = new CVPipelineResult(
                 frame.sequenceID, sumPipeNanosElapsed, fps, previousAprilTags, frame);
+        result.visualOdometryResult = Optional.of(visualOdometryResult);
+        return result;
+    }
 
+    /**
+     * Finds the field-relative camera pose measured from AprilTags this frame, preferring the
+     * multi-tag result and otherwise using the first single tag with a known field pose.
+     */
+    private Optional<Pose3d> getTagFix(
+            Optional<MultiTargetPNPResult> multiTagResult, List<TrackedTarget> targetList) {
+        if (multiTagResult.isPresent()) {
+            return Optional.of(new Pose3d().plus(multiTagResult.get().estimatedPose.best));
+        }
+        if (!settings.solvePNPEnabled) return Optional.empty();
+
+        var atfl = ConfigManager.getInstance().getConfig().getApriltagFieldLayout();
+        for (TrackedTarget target : targetList) {
+            var tagPose = atfl.getTagPose(target.getFiducialId());
+            if (tagPose.isPresent()) {
+                return Optional.of(tagPose.get().transformBy(target.getBestCameraToTarget3d().inverse()));
+            }
+        }
+        return Optional.empty();
     }
 
 
@@ -320,6 +369,7 @@ public class CustomTestPipeline extends CVPipeline<CVPipelineResult, CustomTestP
         aprilTagDetectionPipe.release();
         singleTagPoseEstimatorPipe.release();
         visualOdometryPipe.release();
+        if (imuRotations != null) imuRotations.close();
         super.release();
     }
 }
\ No newline at end of file
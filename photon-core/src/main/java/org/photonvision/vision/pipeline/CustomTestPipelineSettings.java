@@ -2,6 +2,8 @@ package org.photonvision.vision.pipeline;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import org.photonvision.vision.apriltag.AprilTagFamily;
+import org.photonvision.vision.pipe.impl.EssentialMatMethod;
+import org.photonvision.vision.pipe.impl.FeatureDetectionMode;
 import org.photonvision.vision.target.TargetModel;
 
 @JsonTypeName("CustomTestPipelineSettings")
@@ -11,11 +13,30 @@ public class CustomTestPipelineSettings extends AdvancedPipelineSettings {
     public int imageDifferenceThreshold = 150;
     public double essentialMatProb = 0.999;
     public double essentialMatThreshold = 1.;
+    public FeatureDetectionMode featureDetectionMode = FeatureDetectionMode.Full;
+    public int featureGridRows = 4;
+    public int featureGridCols = 4;
+    public int featuresPerCell = 50;
+    public int maxFeatures = 1000;
+    public boolean replenishFeatures = false;
+    public int featureMaskRadius = 10;
+    public boolean resetPoseOnTagFix = true;
+    public boolean keyframeMode = false;
+    public double keyframeMinTrackedRatio = 0.7;
+    public EssentialMatMethod essentialMatMethod = EssentialMatMethod.RANSAC;
+    public int essentialMatMaxIters = 1000;
+    public boolean undistortFeatures = true;
+    public boolean useImuRotationPrior = false;
+    // Camera mounting angles relative to the robot, in degrees
+    public double imuCameraRoll = 0;
+    public double imuCameraPitch = 0;
+    public double imuCameraYaw = 0;
 
     public AprilTagFamily tagFamily = AprilTagFamily.kTag36h11;
     public int decimate = 1;
     public double blur = 0;
     public int threads = 4; // Multiple threads seems to be better performance on most platforms
+    public int featureDetectionThreads = 1; // Strips FAST is split into, 1 runs it on the vision thread
     public boolean debug = false;
     public boolean refineEdges = true;
     public int numIterations = 40;
@@ -46,9 +67,31 @@ public class CustomTestPipelineSettings extends AdvancedPipelineSettings {
         result = prime * result + (int) (temp ^ (temp >>> 32));
         temp = Double.doubleToLongBits(essentialMatThreshold);
         result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + featureDetectionMode.hashCode();
+        result = prime * result + featureGridRows;
+        result = prime * result + featureGridCols;
+        result = prime * result + featuresPerCell;
+        result = prime * result + maxFeatures;
+        result = prime * result + (replenishFeatures ? 1231 : 1237);
+        result = prime * result + featureMaskRadius;
+        result = prime * result + (resetPoseOnTagFix ? 1231 : 1237);
+        result = prime * result + (keyframeMode ? 1231 : 1237);
+        temp = Double.doubleToLongBits(keyframeMinTrackedRatio);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + essentialMatMethod.hashCode();
+        result = prime * result + essentialMatMaxIters;
+        result = prime * result + (undistortFeatures ? 1231 : 1237);
+        result = prime * result + (useImuRotationPrior ? 1231 : 1237);
+        temp = Double.doubleToLongBits(imuCameraRoll);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(imuCameraPitch);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(imuCameraYaw);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
 
         result = prime * result + (int) (temp ^ (temp >>> 32));
         result = prime * result + threads;
+        result = prime * result + featureDetectionThreads;
         result = prime * result + (debug ? 1231 : 1237);
         result = prime * result + (refineEdges ? 1231 : 1237);
         result = prime * result + numIterations;
@@ -70,11 +113,29 @@ public class CustomTestPipelineSettings extends AdvancedPipelineSettings {
         if(minFeatures != other.minFeatures) return false;
         if(essentialMatProb != other.essentialMatProb) return false;
         if(essentialMatThreshold != other.essentialMatThreshold) return false;
+        if(featureDetectionMode != other.featureDetectionMode) return false;
+        if(featureGridRows != other.featureGridRows) return false;
+        if(featureGridCols != other.featureGridCols) return false;
+        if(featuresPerCell != other.featuresPerCell) return false;
+        if(maxFeatures != other.maxFeatures) return false;
+        if(replenishFeatures != other.replenishFeatures) return false;
+        if(featureMaskRadius != other.featureMaskRadius) return false;
+        if(resetPoseOnTagFix != other.resetPoseOnTagFix) return false;
+        if(keyframeMode != other.keyframeMode) return false;
+        if(keyframeMinTrackedRatio != other.keyframeMinTrackedRatio) return false;
+        if(essentialMatMethod != other.essentialMatMethod) return false;
+        if(essentialMatMaxIters != other.essentialMatMaxIters) return false;
+        if(undistortFeatures != other.undistortFeatures) return false;
+        if(useImuRotationPrior != other.useImuRotationPrior) return false;
+        if(imuCameraRoll != other.imuCameraRoll) return false;
+        if(imuCameraPitch != other.imuCameraPitch) return false;
+        if(imuCameraYaw != other.imuCameraYaw) return false;
 
         if (tagFamily != other.tagFamily) return false;
         if (decimate != other.decimate) return false;
         if (Double.doubleToLongBits(blur) != Double.doubleToLongBits(other.blur)) return false;
         if (threads != other.threads) return false;
+        if (featureDetectionThreads != other.featureDetectionThreads) return false;
         if (debug != other.debug) return false;
         if (refineEdges != other.refineEdges) return false;
         if (numIterations != other.numIterations) return false;
@@ -118,6 +118,25 @@ public class OutputStreamPipeline {
             Frame inputAndOutputFrame,
             AdvancedPipelineSettings settings,
             List<TrackedTarget> targetsToDraw) {
+        return process(inputAndOutputFrame, settings, targetsToDraw, true, true);
+    }
+
+    /**
+     * Prepare a frame's images for streaming, skipping any image that won't be used.
+     *
+     * @param inputAndOutputFrame The frame to draw on
+     * @param settings The settings of the pipeline that made the frame
+     * @param targetsToDraw Targets to draw
+     * @param drawInput Whether the input image will be streamed or saved
+     * @param drawOutput Whether the output image will be streamed or saved
+     * @return Result of processing
+     */
+    public CVPipelineResult process(
+            Frame inputAndOutputFrame,
+            AdvancedPipelineSettings settings,
+            List<TrackedTarget> targetsToDraw,
+            boolean drawInput,
+            boolean drawOutput) {
         setPipeParams(inputAndOutputFrame.frameStaticProperties, settings);
         var inMat = inputAndOutputFrame.colorImage.getMat();
         var outMat = inputAndOutputFrame.processedImage.getMat();
@@ -125,13 +144,23 @@ public class OutputStreamPipeline {
         long sumPipeNanosElapsed = 0L;
 
         // Resize both in place before doing any conversion
-        boolean inEmpty = inMat.empty();
+        boolean inEmpty = !drawInput || inMat.empty();
         if (!inEmpty)
             sumPipeNanosElapsed += pipeProfileNanos[0] = resizeImagePipe.run(inMat).nanosElapsed;
+        else pipeProfileNanos[0] = 0;
 
-        boolean outEmpty = outMat.empty();
+        boolean outEmpty = !drawOutput || outMat.empty();
         if (!outEmpty)
             sumPipeNanosElapsed += pipeProfileNanos[1] = resizeImagePipe.run(outMat).nanosElapsed;
+        else pipeProfileNanos[1] = 0;
+
+        // Draw 2D Crosshair on input
+        if (!inEmpty) {
+            var draw2dCrosshairResultOnInput = draw2dCrosshairPipe.run(Pair.of(inMat, targetsToDraw));
+            sumPipeNanosElapsed += pipeProfileNanos[3] = draw2dCrosshairResultOnInput.nanosElapsed;
+        } else {
+            pipeProfileNanos[3] = 0;
+        }
 
         // Only attempt drawing on a non-empty frame
         if (!outEmpty) {
@@ -143,10 +172,6 @@ public class OutputStreamPipeline {
                 pipeProfileNanos[2] = 0;
             }
 
-            // Draw 2D Crosshair on output
-            var draw2dCrosshairResultOnInput = draw2dCrosshairPipe.run(Pair.of(inMat, targetsToDraw));
-            sumPipeNanosElapsed += pipeProfileNanos[3] = draw2dCrosshairResultOnInput.nanosElapsed;
-
             if (!(settings instanceof AprilTagPipelineSettings)
                     && !(settings instanceof ArucoPipelineSettings)
                     && !(settings instanceof Calibration3dPipelineSettings)) {
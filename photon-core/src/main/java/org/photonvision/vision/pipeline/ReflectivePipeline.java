@@ -18,6 +18,7 @@
 package org.photonvision.vision.pipeline;
 
 import java.util.List;
+import org.opencv.core.Rect;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameThresholdType;
 import org.photonvision.vision.opencv.Contour;
@@ -32,6 +33,8 @@ import org.photonvision.vision.target.TrackedTarget;
 /** Represents a pipeline for tracking retro-reflective targets. */
 public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectivePipelineSettings> {
     private final FindContoursPipe findContoursPipe = new FindContoursPipe();
+    private final RegionOfInterest regionOfInterest = new RegionOfInterest();
+    private volatile Rect requestedRoi = null;
     private final SpeckleRejectPipe speckleRejectPipe = new SpeckleRejectPipe();
     private final FilterContoursPipe filterContoursPipe = new FilterContoursPipe();
     private final GroupContoursPipe groupContoursPipe = new GroupContoursPipe();
@@ -115,8 +118,13 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
     public CVPipelineResult process(Frame frame, ReflectivePipelineSettings settings) {
         long sumPipeNanosElapsed = 0L;
 
+        Rect roi =
+                frame.roi != null
+                        ? frame.roi
+                        : regionOfInterest.get(
+                                settings, frameStaticProperties.imageWidth, frameStaticProperties.imageHeight);
         CVPipeResult<List<Contour>> findContoursResult =
-                findContoursPipe.run(frame.processedImage.getMat());
+                findContoursPipe.run(frame.processedImage.getMat(), roi);
         sumPipeNanosElapsed += pipeProfileNanos[2] = findContoursResult.nanosElapsed;
 
         CVPipeResult<List<Contour>> speckleRejectResult =
@@ -156,6 +164,11 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
             targetList = collect2dTargetsResult.output;
         }
 
+        regionOfInterest.update(targetList);
+        requestedRoi =
+                regionOfInterest.get(
+                        settings, frameStaticProperties.imageWidth, frameStaticProperties.imageHeight);
+
         var fpsResult = calculateFPSPipe.run(null);
         var fps = fpsResult.output;
 
@@ -163,4 +176,9 @@ public class ReflectivePipeline extends CVPipeline<CVPipelineResult, ReflectiveP
 
         return new CVPipelineResult(frame.sequenceID, sumPipeNanosElapsed, fps, targetList, frame);
     }
+
+    @Override
+    public Rect getRequestedRoi() {
+        return requestedRoi;
+    }
 }
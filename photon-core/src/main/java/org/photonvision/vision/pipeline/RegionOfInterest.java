@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import java.util.List;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.photonvision.vision.target.TrackedTarget;
+
+/**
+ * Tracks which part of the frame a pipeline should process: the static region from its settings,
+ * optionally narrowed to follow the targets found in the previous frame.
+ */
+public class RegionOfInterest {
+    // Bounding box of the last frame's targets, or null if there were none
+    private Rect lastTargetBounds = null;
+
+    /**
+     * Get the region to process next.
+     *
+     * @param settings The pipeline's settings
+     * @param width Frame width, after rotation
+     * @param height Frame height, after rotation
+     * @return The region to process, or null to process the whole frame
+     */
+    public Rect get(AdvancedPipelineSettings settings, int width, int height) {
+        if (width <= 0 || height <= 0) return null;
+
+        var roi = new Rect(0, 0, width, height);
+        if (settings.roiEnabled) {
+            int x0 = (int) Math.floor(settings.roiRangeX.getFirst() / 100.0 * width);
+            int x1 = (int) Math.ceil(settings.roiRangeX.getSecond() / 100.0 * width);
+            int y0 = (int) Math.floor(settings.roiRangeY.getFirst() / 100.0 * height);
+            int y1 = (int) Math.ceil(settings.roiRangeY.getSecond() / 100.0 * height);
+            roi = intersect(roi, new Rect(x0, y0, x1 - x0, y1 - y0));
+        }
+
+        if (settings.dynamicRoiEnabled && lastTargetBounds != null) {
+            var bounds = lastTargetBounds;
+            int margin =
+                    (int)
+                            Math.ceil(
+                                    Math.max(bounds.width, bounds.height)
+                                            * settings.dynamicRoiMarginPercent
+                                            / 100.0);
+            var grown =
+                    new Rect(
+                            bounds.x - margin,
+                            bounds.y - margin,
+                            bounds.width + 2 * margin,
+                            bounds.height + 2 * margin);
+            var narrowed = intersect(roi, grown);
+            // If the targets have left the static region, search all of it again
+            if (narrowed.area() > 0) roi = narrowed;
+        }
+
+        if (roi.area() <= 0 || (roi.width == width && roi.height == height)) return null;
+        return roi;
+    }
+
+    /**
+     * Remember where this frame's targets were, for the dynamic region of interest.
+     *
+     * @param targets Targets found this frame, in full-frame pixels
+     */
+    public void update(List<TrackedTarget> targets) {
+        Rect bounds = null;
+        for (var target : targets) {
+            Rect targetBounds;
+            List<Point> corners = target.getTargetCorners();
+            if (corners != null && !corners.isEmpty()) {
+                targetBounds = boundingRect(corners);
+            } else if (target.getMinAreaRect() != null) {
+                targetBounds = target.getMinAreaRect().boundingRect();
+            } else {
+                continue;
+            }
+
+            bounds = bounds == null ? targetBounds : union(bounds, targetBounds);
+        }
+        lastTargetBounds = bounds;
+    }
+
+    private static Rect boundingRect(List<Point> points) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (var p : points) {
+            minX = Math.min(minX, p.x);
+            minY = Math.min(minY, p.y);
+            maxX = Math.max(maxX, p.x);
+            maxY = Math.max(maxY, p.y);
+        }
+        int x = (int) Math.floor(minX);
+        int y = (int) Math.floor(minY);
+        return new Rect(x, y, (int) Math.ceil(maxX) - x, (int) Math.ceil(maxY) - y);
+    }
+
+    private static Rect union(Rect a, Rect b) {
+        int x = Math.min(a.x, b.x);
+        int y = Math.min(a.y, b.y);
+        int w = Math.max(a.x + a.width, b.x + b.width) - x;
+        int h = Math.max(a.y + a.height, b.y + b.height) - y;
+        return new Rect(x, y, w, h);
+    }
+
+    private static Rect intersect(Rect a, Rect b) {
+        int x = Math.max(a.x, b.x);
+        int y = Math.max(a.y, b.y);
+        int w = Math.min(a.x + a.width, b.x + b.width) - x;
+        int h = Math.min(a.y + a.height, b.y + b.height) - y;
+        return new Rect(x, y, Math.max(w, 0), Math.max(h, 0));
+    }
+}
@@ -34,6 +34,7 @@ public class CVPipelineResult implements Releasable {
     public final List<TrackedTarget> targets;
     public final Frame inputAndOutputFrame;
     public Optional<MultiTargetPNPResult> multiTagResult;
+    public Optional<VisualOdometryResult> visualOdometryResult = Optional.empty();
     public final List<String> objectDetectionClassNames;
 
     public CVPipelineResult(
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline.result;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Transform3d;
+
+/** The visual odometry state for one processed frame. */
+public class VisualOdometryResult {
+    /** Capture timestamp of the frame this result belongs to. */
+    public final long timestampNanos;
+
+    /** Whether a new motion was estimated for this frame, or the pose was simply carried over. */
+    public final boolean hasMotion;
+
+    /**
+     * The camera motion since the previous frame, in the camera's NWU frame. The translation is in
+     * meters, and is zero until AprilTag fixes have given the monocular estimate a scale.
+     */
+    public final Transform3d motion;
+
+    /**
+     * The accumulated camera pose, with its translation in meters. Until a scale is known only
+     * rotation is accumulated, so the translation stays at the last pose it was reset to.
+     */
+    public final Pose3d pose;
+
+    /** Fraction of tracked features that were inliers of the motion solve, or 0 if none was run. */
+    public final double inlierRatio;
+
+    /** Time spent solving for the essential matrix and pose, or 0 if no solve was run. */
+    public final long solveNanos;
+
+    public VisualOdometryResult(
+            long timestampNanos,
+            boolean hasMotion,
+            Transform3d motion,
+            Pose3d pose,
+            double inlierRatio,
+            long solveNanos) {
+        this.timestampNanos = timestampNanos;
+        this.hasMotion = hasMotion;
+        this.motion = motion;
+        this.pose = pose;
+        this.inlierRatio = inlierRatio;
+        this.solveNanos = solveNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "VisualOdometryResult{"
+                + "timestampNanos="
+                + timestampNanos
+                + ", hasMotion="
+                + hasMotion
+                + ", motion="
+                + motion
+                + ", pose="
+                + pose
+                + ", inlierRatio="
+                + inlierRatio
+                + ", solveNanos="
+                + solveNanos
+                + '}';
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.processes;
+
+import java.util.function.Consumer;
+
+/**
+ * A hand-off between two threads that holds at most one item. Putting an item while the previous one
+ * is still waiting drops the older one, so a slow consumer always sees the newest item and latency
+ * stays bounded to a single item.
+ *
+ * @param <T> The type of item handed off
+ */
+class SingleSlotQueue<T> {
+    private final Consumer<T> onDrop;
+    private T item = null;
+    private long droppedCount = 0;
+
+    /**
+     * @param onDrop Called with items that are dropped without being taken, so they can be released
+     */
+    SingleSlotQueue(Consumer<T> onDrop) {
+        this.onDrop = onDrop;
+    }
+
+    /**
+     * Hand off an item, dropping any item that hasn't been taken yet.
+     *
+     * @param newItem The item to hand off. Must not be null.
+     */
+    public void put(T newItem) {
+        T dropped;
+        synchronized (this) {
+            dropped = item;
+            item = newItem;
+            if (dropped != null) droppedCount++;
+            notifyAll();
+        }
+        if (dropped != null) onDrop.accept(dropped);
+    }
+
+    /**
+     * Wait for an item and take it.
+     *
+     * @return The newest item
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public synchronized T take() throws InterruptedException {
+        while (item == null) {
+            wait();
+        }
+        T taken = item;
+        item = null;
+        return taken;
+    }
+
+    /** Drop the waiting item, if there is one. */
+    public void clear() {
+        T dropped;
+        synchronized (this) {
+            dropped = item;
+            item = null;
+        }
+        if (dropped != null) onDrop.accept(dropped);
+    }
+
+    /**
+     * @return How many items have been dropped by {@link #put} because they were not taken in time
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+}
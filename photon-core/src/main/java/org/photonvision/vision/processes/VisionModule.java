@@ -21,7 +21,6 @@ import edu.wpi.first.cscore.CameraServerJNI;
 import edu.wpi.first.cscore.VideoException;
 import edu.wpi.first.math.util.Units;
 import io.javalin.websocket.WsContext;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -75,7 +74,9 @@ public class VisionModule {
     private final LinkedList<CVPipelineResultConsumer> resultConsumers = new LinkedList<>();
     // Raw result consumers run before any drawing has been done by the
     // OutputStreamPipeline
-    private final LinkedList<BiConsumer<Frame, List<TrackedTarget>>> streamResultConsumers =
+    private final LinkedList<BiConsumer<Frame, List<TrackedTarget>>> inputStreamConsumers =
+            new LinkedList<>();
+    private final LinkedList<BiConsumer<Frame, List<TrackedTarget>>> outputStreamConsumers =
             new LinkedList<>();
     private final NTDataPublisher ntConsumer;
     private final UIDataPublisher uiDataConsumer;
@@ -134,7 +135,9 @@ public class VisionModule {
                         this.pipelineManager::getCurrentPipeline,
                         this::consumeResult,
                         this.cameraQuirks,
-                        getChangeSubscriber());
+                        getChangeSubscriber(),
+                        visionSource.getSettables().getConfiguration().pipelinedProcessing,
+                        () -> inputFrameSaver != null && inputFrameSaver.hasPendingSave());
         this.streamRunnable = new StreamRunnable(new OutputStreamPipeline());
         changeSubscriberHandle = DataChangeService.getInstance().addSubscriber(changeSubscriber);
 
@@ -204,22 +207,28 @@ public class VisionModule {
         outputVideoStreamer =
                 new MJPGFrameConsumer(
                         camHostname + "_Port_" + outputStreamPort + "_Output_MJPEG_Server", outputStreamPort);
+
+        var config = visionSource.getSettables().getConfiguration();
+        for (var streamer : List.of(inputVideoStreamer, outputVideoStreamer)) {
+            streamer.setMaxFps(config.streamMaxFps);
+            streamer.setDownscale(config.streamDownscale);
+        }
     }
 
     private void recreateStreamResultConsumers() {
-        streamResultConsumers.add(
+        inputStreamConsumers.add(
                 (frame, tgts) -> {
                     if (frame != null) inputFrameSaver.accept(frame.colorImage);
                 });
-        streamResultConsumers.add(
+        outputStreamConsumers.add(
                 (frame, tgts) -> {
                     if (frame != null) outputFrameSaver.accept(frame.processedImage);
                 });
-        streamResultConsumers.add(
+        inputStreamConsumers.add(
                 (frame, tgts) -> {
                     if (frame != null) inputVideoStreamer.accept(frame.colorImage);
                 });
-        streamResultConsumers.add(
+        outputStreamConsumers.add(
                 (frame, tgts) -> {
                     if (frame != null) outputVideoStreamer.accept(frame.processedImage);
                 });
@@ -228,12 +237,16 @@ public class VisionModule {
     private class StreamRunnable extends Thread {
         private final OutputStreamPipeline outputStreamPipeline;
 
-        private final Object frameLock = new Object();
-        private Frame latestFrame;
-        private AdvancedPipelineSettings settings = new AdvancedPipelineSettings();
-        private List<TrackedTarget> targets = new ArrayList<>();
+        /** A frame to stream, with the settings and targets to draw on it */
+        private record StreamData(
+                Frame frame, AdvancedPipelineSettings settings, List<TrackedTarget> targets) {}
 
-        private boolean shouldRun = false;
+        private final SingleSlotQueue<StreamData> latestData =
+                new SingleSlotQueue<>(
+                        data -> {
+                            logger.trace("Fell behind; releasing last unused Mats");
+                            data.frame().release();
+                        });
 
         public StreamRunnable(OutputStreamPipeline outputStreamPipeline) {
             this.outputStreamPipeline = outputStreamPipeline;
@@ -241,63 +254,55 @@ public class VisionModule {
 
         public void updateData(
                 Frame inputOutputFrame, AdvancedPipelineSettings settings, List<TrackedTarget> targets) {
-            synchronized (frameLock) {
-                if (shouldRun && this.latestFrame != null) {
-                    logger.trace("Fell behind; releasing last unused Mats");
-                    this.latestFrame.release();
-                }
-
-                this.latestFrame = inputOutputFrame;
-                this.settings = settings;
-                this.targets = targets;
-
-                shouldRun = inputOutputFrame != null;
-                // && inputOutputFrame.colorImage != null
-                // && !inputOutputFrame.colorImage.getMat().empty()
-                // && inputOutputFrame.processedImage != null
-                // && !inputOutputFrame.processedImage.getMat().empty();
+            if (inputOutputFrame != null) {
+                latestData.put(new StreamData(inputOutputFrame, settings, targets));
+            } else {
+                latestData.clear();
             }
         }
 
         @Override
         public void run() {
             while (!Thread.interrupted()) {
-                final Frame m_frame;
-                final AdvancedPipelineSettings settings;
-                final List<TrackedTarget> targets;
-                final boolean shouldRun;
-                synchronized (frameLock) {
-                    m_frame = this.latestFrame;
-                    this.latestFrame = null;
-
-                    settings = this.settings;
-                    targets = this.targets;
-                    shouldRun = this.shouldRun;
-
-                    this.shouldRun = false;
+                final StreamData data;
+                try {
+                    // Sleeps until the vision thread hands us a new frame
+                    data = latestData.take();
+                } catch (InterruptedException e) {
+                    logger.warn("StreamRunnable was interrupted - exiting");
+                    return;
                 }
-                if (shouldRun) {
-                    try {
-                        CVPipelineResult osr = outputStreamPipeline.process(m_frame, settings, targets);
-                        consumeResults(m_frame, targets);
 
-                    } catch (Exception e) {
-                        // Never die
-                        logger.error("Exception while running stream runnable!", e);
-                    }
-                    try {
-                        m_frame.release();
-                    } catch (Exception e) {
-                        logger.error("Exception freeing frames", e);
-                    }
-                } else {
-                    // busy wait! hurray!
-                    try {
-                        Thread.sleep(1);
-                    } catch (InterruptedException e) {
-                        logger.warn("StreamRunnable was interrupted - exiting");
-                        return;
+                try {
+                    // Frames captured before a snapshot was requested may have no colour image, so
+                    // wait for one that does. A frame with neither image means the camera was
+                    // lost, which is still saved.
+                    var frame = data.frame();
+                    boolean hasInputImage =
+                            !frame.colorImage.getMat().empty()
+                                    || frame.processedImage.getMat().empty();
+
+                    // Only draw on and hand off images that a stream or snapshot will use
+                    boolean useInput =
+                            (data.settings().inputShouldShow && inputVideoStreamer.hasClients())
+                                    || (inputFrameSaver.hasPendingSave() && hasInputImage);
+                    boolean useOutput =
+                            (data.settings().outputShouldShow && outputVideoStreamer.hasClients())
+                                    || outputFrameSaver.hasPendingSave();
+
+                    if (useInput || useOutput) {
+                        outputStreamPipeline.process(
+                                data.frame(), data.settings(), data.targets(), useInput, useOutput);
+                        consumeResults(data.frame(), data.targets(), useInput, useOutput);
                     }
+                } catch (Exception e) {
+                    // Never die
+                    logger.error("Exception while running stream runnable!", e);
+                }
+                try {
+                    data.frame().release();
+                } catch (Exception e) {
+                    logger.error("Exception freeing frames", e);
                 }
             }
         }
@@ -319,6 +324,8 @@ public class VisionModule {
         } catch (InterruptedException e) {
             logger.error("Exception killing process thread", e);
         }
+        // Release a frame the stream thread never got to
+        streamRunnable.latestData.clear();
 
         visionSource.release();
 
@@ -654,8 +661,20 @@ public class VisionModule {
 
     /** Consume stream/target results, no rate limiting applied */
     private void consumeResults(Frame frame, List<TrackedTarget> targets) {
-        for (var c : streamResultConsumers) {
-            c.accept(frame, targets);
+        consumeResults(frame, targets, true, true);
+    }
+
+    private void consumeResults(
+            Frame frame, List<TrackedTarget> targets, boolean consumeInput, boolean consumeOutput) {
+        if (consumeInput) {
+            for (var c : inputStreamConsumers) {
+                c.accept(frame, targets);
+            }
+        }
+        if (consumeOutput) {
+            for (var c : outputStreamConsumers) {
+                c.accept(frame, targets);
+            }
         }
     }
 
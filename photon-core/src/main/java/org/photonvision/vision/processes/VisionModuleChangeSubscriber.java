@@ -47,6 +47,10 @@ public class VisionModuleChangeSubscriber extends DataChangeSubscriber {
     private List<VisionModuleChange<?>> settingChanges = new ArrayList<>();
     private final ReentrantLock changeListLock = new ReentrantLock();
 
+    // Bumped whenever settings may have changed, so the VisionRunner knows to push them to the
+    // frame provider again instead of doing so every frame
+    private volatile long settingsVersion = 0;
+
     public VisionModuleChangeSubscriber(VisionModule parentModule) {
         this.parentModule = parentModule;
         logger =
@@ -157,12 +161,25 @@ public class VisionModuleChangeSubscriber extends DataChangeSubscriber {
                     }
                 }
             }
+            if (!settingChanges.isEmpty()) markSettingsChanged();
             getSettingChanges().clear();
         } finally {
             changeListLock.unlock();
         }
     }
 
+    /** Note that pipeline settings were changed outside of {@link #processSettingChanges()}. */
+    public void markSettingsChanged() {
+        settingsVersion++;
+    }
+
+    /**
+     * @return A number that changes whenever the pipeline settings may have changed
+     */
+    public long getSettingsVersion() {
+        return settingsVersion;
+    }
+
     public void newPipelineNickname(String newNickname) {
         logger.info("Changing pipeline nickname to " + newNickname);
         parentModule.pipelineManager.getCurrentPipelineSettings().pipelineNickname = newNickname;
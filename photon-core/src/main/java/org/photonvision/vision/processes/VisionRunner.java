@@ -19,11 +19,15 @@ package org.photonvision.vision.processes;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import org.opencv.core.Rect;
 import org.photonvision.common.configuration.ConfigManager;
 import org.photonvision.common.dataflow.DataChangeService;
 import org.photonvision.common.dataflow.events.OutgoingUIEvent;
@@ -33,25 +37,64 @@ import org.photonvision.common.logging.Logger;
 import org.photonvision.vision.camera.QuirkyCamera;
 import org.photonvision.vision.frame.Frame;
 import org.photonvision.vision.frame.FrameProvider;
+import org.photonvision.vision.opencv.ImageRotationMode;
 import org.photonvision.vision.pipe.impl.HSVPipe;
 import org.photonvision.vision.pipeline.AdvancedPipelineSettings;
 import org.photonvision.vision.pipeline.CVPipeline;
 import org.photonvision.vision.pipeline.result.CVPipelineResult;
 
-/** VisionRunner has a frame supplier, a pipeline supplier, and a result consumer */
+/**
+ * VisionRunner has a frame supplier, a pipeline supplier, and a result consumer.
+ *
+ * <p>By default a single thread captures each frame, runs the pipeline on it and hands the result to
+ * the consumer. In pipelined mode these are three threads joined by {@link SingleSlotQueue}s, so
+ * the next frame can be captured and colour converted while the current one is being processed and
+ * the last one published. Each stage is one thread and only ever drops older items, so results still
+ * come out in sequenceID order.
+ */
 @SuppressWarnings("rawtypes")
 public class VisionRunner {
     private final Logger logger;
     private final Thread visionProcessThread;
+    private final Thread captureThread;
+    private final Thread publishThread;
     private final FrameProvider frameSupplier;
     private final Supplier<CVPipeline> pipelineSupplier;
     private final Consumer<CVPipelineResult> pipelineResultConsumer;
     private final VisionModuleChangeSubscriber changeSubscriber;
     private final List<Runnable> runnableList = new ArrayList<Runnable>();
     private final QuirkyCamera cameraQuirks;
+    private final BooleanSupplier inputSnapshotPending;
+
+    /** A captured frame, and the pipeline it was captured for */
+    private record PendingFrame(CVPipeline pipeline, Frame frame) {}
+
+    // Frames captured but never processed, across all cameras, for the device metrics
+    private static final LongAdder droppedFrameTotal = new LongAdder();
+
+    // Hand-offs between stages in pipelined mode
+    private final SingleSlotQueue<PendingFrame> capturedFrames =
+            new SingleSlotQueue<>(
+                    pending -> {
+                        droppedFrameTotal.increment();
+                        pending.frame().release();
+                    });
+    private final SingleSlotQueue<CVPipelineResult> pipelineResults =
+            new SingleSlotQueue<>(CVPipelineResult::release);
 
     private long loopCount;
 
+    // What the frame provider was last configured for, so it's only reconfigured on change
+    private CVPipeline appliedPipeline = null;
+    private long appliedSettingsVersion = -1;
+    private ImageRotationMode appliedRotation = null;
+    private Rect appliedRoi = null;
+    private Boolean appliedCopyInput = null;
+
+    // Capture time before which frames are dropped to keep under the pipeline's maxProcessingFps
+    private long nextFrameDueNanos = 0;
+    private long rateLimitedFrameCount = 0;
+
     /**
      * VisionRunner contains a thread to run a pipeline, given a frame, and will give the result to
      * the consumer.
@@ -66,30 +109,84 @@ public class VisionRunner {
             Consumer<CVPipelineResult> pipelineResultConsumer,
             QuirkyCamera cameraQuirks,
             VisionModuleChangeSubscriber changeSubscriber) {
+        this(
+                frameSupplier,
+                pipelineSupplier,
+                pipelineResultConsumer,
+                cameraQuirks,
+                changeSubscriber,
+                false,
+                () -> false);
+    }
+
+    /**
+     * VisionRunner contains a thread to run a pipeline, given a frame, and will give the result to
+     * the consumer.
+     *
+     * @param frameSupplier The supplier of the latest frame.
+     * @param pipelineSupplier The supplier of the current pipeline.
+     * @param pipelineResultConsumer The consumer of the latest result.
+     * @param pipelined Whether to capture, process and publish on separate threads
+     * @param inputSnapshotPending Whether an input snapshot is waiting to be saved, so the colour
+     *     image is needed even if the input stream isn't shown
+     */
+    public VisionRunner(
+            FrameProvider frameSupplier,
+            Supplier<CVPipeline> pipelineSupplier,
+            Consumer<CVPipelineResult> pipelineResultConsumer,
+            QuirkyCamera cameraQuirks,
+            VisionModuleChangeSubscriber changeSubscriber,
+            boolean pipelined,
+            BooleanSupplier inputSnapshotPending) {
         this.frameSupplier = frameSupplier;
         this.pipelineSupplier = pipelineSupplier;
         this.pipelineResultConsumer = pipelineResultConsumer;
         this.cameraQuirks = cameraQuirks;
         this.changeSubscriber = changeSubscriber;
+        this.inputSnapshotPending = inputSnapshotPending;
 
-        visionProcessThread = new Thread(this::update);
+        if (pipelined) {
+            visionProcessThread = new Thread(this::processStage);
+            captureThread = new Thread(this::captureStage);
+            captureThread.setName("VisionRunner Capture - " + frameSupplier.getName());
+            publishThread = new Thread(this::publishStage);
+            publishThread.setName("VisionRunner Publish - " + frameSupplier.getName());
+        } else {
+            visionProcessThread = new Thread(this::update);
+            captureThread = null;
+            publishThread = null;
+        }
         visionProcessThread.setName("VisionRunner - " + frameSupplier.getName());
         logger = new Logger(VisionRunner.class, frameSupplier.getName(), LogGroup.VisionModule);
         changeSubscriber.processSettingChanges();
     }
 
     public void startProcess() {
+        if (publishThread != null) publishThread.start();
         visionProcessThread.start();
+        if (captureThread != null) captureThread.start();
     }
 
     public void stopProcess() {
         try {
             System.out.println("Interrupting vision process thread");
+            if (captureThread != null) {
+                captureThread.interrupt();
+                captureThread.join();
+            }
             visionProcessThread.interrupt();
             visionProcessThread.join();
+            if (publishThread != null) {
+                publishThread.interrupt();
+                publishThread.join();
+            }
         } catch (InterruptedException e) {
             logger.error("Exception killing process thread", e);
         }
+
+        // Anything still waiting between stages will never be consumed
+        capturedFrames.clear();
+        pipelineResults.clear();
     }
 
     public Future<Void> runSynchronously(Runnable runnable) {
@@ -127,15 +224,115 @@ public class VisionRunner {
         return future;
     }
 
+    /**
+     * @return How many captured frames were dropped because processing hadn't finished the previous
+     *     one, in pipelined mode
+     */
+    public long getDroppedFrameCount() {
+        return capturedFrames.getDroppedCount();
+    }
+
+    /**
+     * @return How many frames were dropped to keep under the pipeline's maxProcessingFps
+     */
+    public long getRateLimitedFrameCount() {
+        return rateLimitedFrameCount;
+    }
+
+    /**
+     * @return How many frames were captured but never processed, across all cameras
+     */
+    public static long getDroppedFrameTotal() {
+        return droppedFrameTotal.sum();
+    }
+
+    /**
+     * @return How many results were dropped because publishing hadn't finished the previous one, in
+     *     pipelined mode
+     */
+    public long getDroppedResultCount() {
+        return pipelineResults.getDroppedCount();
+    }
+
     private void update() {
+        if (!waitForCamera(pipelineResultConsumer)) return;
+
+        while (!Thread.interrupted()) {
+            runPendingWork();
+
+            var pipeline = pipelineSupplier.get();
+            var frame = grabFrame(pipeline);
+            var pipelineResult = runPipeline(pipeline, frame);
+            if (pipelineResult != null) {
+                try {
+                    pipelineResultConsumer.accept(pipelineResult);
+                } catch (Exception ex) {
+                    logger.error("Exception on loop " + loopCount, ex);
+                }
+            }
+        }
+    }
+
+    /** Pipelined mode: grab frames as fast as the camera provides them */
+    private void captureStage() {
+        if (!waitForCamera(pipelineResults::put)) return;
+
+        while (!Thread.interrupted()) {
+            var pipeline = pipelineSupplier.get();
+            capturedFrames.put(new PendingFrame(pipeline, grabFrame(pipeline)));
+        }
+    }
+
+    /** Pipelined mode: run the pipeline on the newest captured frame */
+    private void processStage() {
+        while (!Thread.interrupted()) {
+            PendingFrame pending;
+            try {
+                pending = capturedFrames.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            // Settings changes and synchronous work touch pipeline state, so they run on this thread
+            runPendingWork();
+
+            var pipelineResult = runPipeline(pending.pipeline(), pending.frame());
+            if (pipelineResult != null) pipelineResults.put(pipelineResult);
+        }
+    }
+
+    /** Pipelined mode: hand the newest result to the consumer */
+    private void publishStage() {
+        while (!Thread.interrupted()) {
+            CVPipelineResult pipelineResult;
+            try {
+                pipelineResult = pipelineResults.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                pipelineResultConsumer.accept(pipelineResult);
+            } catch (Exception ex) {
+                logger.error("Exception publishing result " + pipelineResult.sequenceID, ex);
+            }
+        }
+    }
+
+    /**
+     * Block until the camera connects, feeding blank results to {@code resultSink} in the meantime.
+     *
+     * @return false if interrupted before the camera connected
+     */
+    private boolean waitForCamera(Consumer<CVPipelineResult> resultSink) {
         // wait for the camera to connect
         while (!frameSupplier.checkCameraConnected() && !Thread.interrupted()) {
             // yield
-            pipelineResultConsumer.accept(new CVPipelineResult(0l, 0, 0, null, new Frame()));
+            resultSink.accept(new CVPipelineResult(0l, 0, 0, null, new Frame()));
             try {
                 Thread.sleep(100);
             } catch (InterruptedException e) {
-                return;
+                return false;
             }
         }
 
@@ -144,68 +341,140 @@ public class VisionRunner {
                         new OutgoingUIEvent<>(
                                 "fullsettings",
                                 UIPhotonConfiguration.programStateToUi(ConfigManager.getInstance().getConfig())));
+        return true;
+    }
 
-        while (!Thread.interrupted()) {
-            changeSubscriber.processSettingChanges();
-            synchronized (runnableList) {
-                for (var runnable : runnableList) {
-                    try {
-                        runnable.run();
-                    } catch (Exception ex) {
-                        logger.error("Exception running runnable", ex);
-                    }
+    /** Apply settings changes and run work queued by {@link #runSynchronously} */
+    private void runPendingWork() {
+        changeSubscriber.processSettingChanges();
+        synchronized (runnableList) {
+            if (runnableList.isEmpty()) return;
+
+            for (var runnable : runnableList) {
+                try {
+                    runnable.run();
+                } catch (Exception ex) {
+                    logger.error("Exception running runnable", ex);
                 }
-                runnableList.clear();
             }
+            runnableList.clear();
 
-            var pipeline = pipelineSupplier.get();
+            // Synchronous work is usually a settings change. Bump the version only after it has run,
+            // so the capture thread can't apply the old settings and record them as up to date
+            changeSubscriber.markSettingsChanged();
+        }
+    }
 
-            // Tell our camera implementation here what kind of pre-processing we need it to
-            // be doing
-            // (pipeline-dependent). I kinda hate how much leak this has...
-            // TODO would a callback object be a better fit?
-            var wantedProcessType = pipeline.getThresholdType();
-
-            frameSupplier.requestFrameThresholdType(wantedProcessType);
-            var settings = pipeline.getSettings();
-            if (settings instanceof AdvancedPipelineSettings advanced) {
-                var hsvParams =
-                        new HSVPipe.HSVParams(
-                                advanced.hsvHue, advanced.hsvSaturation, advanced.hsvValue, advanced.hueInverted);
-                // TODO who should deal with preventing this from happening _every single loop_?
-                frameSupplier.requestHsvSettings(hsvParams);
-            }
-            frameSupplier.requestFrameRotation(settings.inputImageRotationMode);
-            frameSupplier.requestFrameCopies(settings.inputShouldShow, settings.outputShouldShow);
+    /** Configure the frame provider for {@code pipeline} if needed, and grab the new camera frame */
+    private Frame grabFrame(CVPipeline pipeline) {
+        var settings = pipeline.getSettings();
+        long settingsVersion = changeSubscriber.getSettingsVersion();
 
-            // Grab the new camera frame
-            var frame = frameSupplier.get();
+        // Only reconfigure when the pipeline or its settings changed. Rotation is also compared
+        // directly, since pipelines may correct it themselves (see Calibrate3dPipeline).
+        if (pipeline != appliedPipeline
+                || settingsVersion != appliedSettingsVersion
+                || settings.inputImageRotationMode != appliedRotation) {
+            applyFrameSettings(pipeline);
+            appliedPipeline = pipeline;
+            appliedSettingsVersion = settingsVersion;
+            appliedRotation = settings.inputImageRotationMode;
+            appliedCopyInput = null;
+        }
 
-            // Frame empty -- no point in trying to do anything more?
-            if (frame.processedImage.getMat().empty() && frame.colorImage.getMat().empty()) {
-                // give up without increasing loop count
-                // Still feed with blank frames just dont run any pipelines
+        // Snapshots can be requested at any time, so check every frame whether the colour image is
+        // needed. Frame providers may skip making it otherwise.
+        boolean copyInput = settings.inputShouldShow || inputSnapshotPending.getAsBoolean();
+        if (appliedCopyInput == null || copyInput != appliedCopyInput) {
+            frameSupplier.requestFrameCopies(copyInput, settings.outputShouldShow);
+            appliedCopyInput = copyInput;
+        }
 
-                pipelineResultConsumer.accept(new CVPipelineResult(0l, 0, 0, null, new Frame()));
-                continue;
-            }
+        // The region of interest follows targets, so it can change every frame
+        var roi = pipeline.getRequestedRoi();
+        if (!Objects.equals(roi, appliedRoi)) {
+            frameSupplier.requestFrameRoi(roi);
+            appliedRoi = roi;
+        }
 
-            // If the pipeline has changed while we are getting our frame we should scrap
-            // that frame it
-            // may result in incorrect frame settings like hsv values
-            if (pipeline == pipelineSupplier.get()) {
-                // There's no guarantee the processing type change will occur this tick, so
-                // pipelines should
-                // check themselves
-                try {
-                    var pipelineResult = pipeline.run(frame, cameraQuirks);
-                    pipelineResultConsumer.accept(pipelineResult);
-                } catch (Exception ex) {
-                    logger.error("Exception on loop " + loopCount, ex);
-                }
-            }
+        return frameSupplier.get();
+    }
+
+    private void applyFrameSettings(CVPipeline pipeline) {
+        // Tell our camera implementation here what kind of pre-processing we need it to
+        // be doing
+        // (pipeline-dependent). I kinda hate how much leak this has...
+        // TODO would a callback object be a better fit?
+        var wantedProcessType = pipeline.getThresholdType();
+
+        frameSupplier.requestFrameThresholdType(wantedProcessType);
+        var settings = pipeline.getSettings();
+        if (settings instanceof AdvancedPipelineSettings advanced) {
+            var hsvParams =
+                    new HSVPipe.HSVParams(
+                            advanced.hsvHue, advanced.hsvSaturation, advanced.hsvValue, advanced.hueInverted);
+            frameSupplier.requestHsvSettings(hsvParams);
+        }
+        frameSupplier.requestFrameRotation(settings.inputImageRotationMode);
+    }
+
+    /**
+     * Run {@code pipeline} on {@code frame}.
+     *
+     * @return The result to consume, or null if there is nothing to consume
+     */
+    private CVPipelineResult runPipeline(CVPipeline pipeline, Frame frame) {
+        // Frame empty -- no point in trying to do anything more?
+        if (frame.processedImage.getMat().empty() && frame.colorImage.getMat().empty()) {
+            // give up without increasing loop count
+            // Still feed with blank frames just dont run any pipelines
+            frame.release();
+            return new CVPipelineResult(0l, 0, 0, null, new Frame());
+        }
 
-            loopCount++;
+        if (isOverRateLimit(pipeline, frame)) {
+            frame.release();
+            rateLimitedFrameCount++;
+            droppedFrameTotal.increment();
+            return null;
+        }
+
+        CVPipelineResult pipelineResult = null;
+
+        // If the pipeline has changed while we are getting our frame we should scrap
+        // that frame it
+        // may result in incorrect frame settings like hsv values
+        if (pipeline == pipelineSupplier.get()) {
+            // There's no guarantee the processing type change will occur this tick, so
+            // pipelines should
+            // check themselves
+            try {
+                pipelineResult = pipeline.run(frame, cameraQuirks);
+            } catch (Exception ex) {
+                logger.error("Exception on loop " + loopCount, ex);
+            }
+        } else {
+            frame.release();
         }
+
+        loopCount++;
+        return pipelineResult;
+    }
+
+    /**
+     * Check whether processing {@code frame} would exceed the pipeline's maxProcessingFps, and if
+     * not, count it against the budget. Frames are spaced by capture time, carrying over any slack
+     * so that a camera that isn't a multiple of the limit still averages out to it.
+     */
+    private boolean isOverRateLimit(CVPipeline pipeline, Frame frame) {
+        double maxFps = pipeline.getSettings().maxProcessingFps;
+        if (maxFps <= 0) return false;
+
+        if (frame.timestampNanos < nextFrameDueNanos) return true;
+
+        long periodNanos = (long) (1e9 / maxFps);
+        // Don't let slack build up across a stall, or we'd process a burst of frames afterwards
+        nextFrameDueNanos = Math.max(nextFrameDueNanos, frame.timestampNanos - periodNanos) + periodNanos;
+        return false;
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.frame.provider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.common.util.TestUtils;
+import org.photonvision.vision.frame.FrameThresholdType;
+import org.photonvision.vision.opencv.ImageRotationMode;
+
+public class CpuImageProcessorTest {
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @Test
+    public void unrotateRoiMatchesCoreRotate() {
+        int width = 8;
+        int height = 6;
+        var roi = new Rect(1, 2, 3, 2);
+
+        for (var rotation : ImageRotationMode.values()) {
+            // Mark where the region came from, then rotate and check it lands on the region
+            var image = new Mat(height, width, CvType.CV_8UC1, new Scalar(0));
+            var source = CpuImageProcessor.unrotateRoi(roi, rotation, width, height);
+            image.submat(source).setTo(new Scalar(255));
+
+            if (rotation != ImageRotationMode.DEG_0) Core.rotate(image, image, rotation.value);
+
+            var rotated = image.submat(roi);
+            assertEquals(roi.area(), Core.countNonZero(rotated), rotation.name());
+            assertEquals(roi.area(), Core.countNonZero(image), rotation.name());
+
+            rotated.release();
+            image.release();
+        }
+    }
+
+    @Test
+    public void rotatedGreyscaleMatchesColour() {
+        var path = TestUtils.getWPIImagePath(TestUtils.WPI2019Image.kCargoStraightDark72in, false);
+
+        for (var rotation : ImageRotationMode.values()) {
+            var provider = new FileFrameProvider(path, 68.5);
+            provider.requestFrameRotation(rotation);
+
+            provider.requestFrameThresholdType(FrameThresholdType.NONE);
+            var colorFrame = provider.get();
+            var expected = new Mat();
+            Imgproc.cvtColor(colorFrame.colorImage.getMat(), expected, Imgproc.COLOR_BGR2GRAY);
+
+            provider.requestFrameThresholdType(FrameThresholdType.GREYSCALE);
+            var greyFrame = provider.get();
+            var actual = greyFrame.processedImage.getMat();
+
+            assertEquals(expected.size(), actual.size(), rotation.name());
+            assertTrue(Core.norm(expected, actual, Core.NORM_INF) == 0, rotation.name());
+
+            expected.release();
+            colorFrame.release();
+            greyFrame.release();
+            provider.release();
+        }
+    }
+}
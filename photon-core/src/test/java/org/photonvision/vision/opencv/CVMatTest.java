@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.opencv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.photonvision.common.LoadJNI;
+
+public class CVMatTest {
+    @BeforeEach
+    public void Init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @Test
+    public void tracksLiveCountAndBytes() {
+        int startCount = CVMat.getMatCount();
+        long startBytes = CVMat.getMatBytes();
+
+        var mat = new CVMat(new Mat(10, 20, CvType.CV_8UC3));
+        assertEquals(startCount + 1, CVMat.getMatCount());
+        assertEquals(startBytes + 10 * 20 * 3, CVMat.getMatBytes());
+
+        mat.release();
+        assertEquals(startCount, CVMat.getMatCount());
+        assertEquals(startBytes, CVMat.getMatBytes());
+
+        // Releasing twice must not count twice
+        mat.release();
+        assertEquals(startCount, CVMat.getMatCount());
+    }
+
+    @Test
+    public void copyUpdatesBytes() {
+        long startBytes = CVMat.getMatBytes();
+
+        var src = new Mat(4, 4, CvType.CV_8UC1);
+        var dst = new CVMat();
+        assertEquals(startBytes, CVMat.getMatBytes());
+
+        dst.copyFrom(src);
+        assertEquals(startBytes + 16, CVMat.getMatBytes());
+
+        dst.release();
+        src.release();
+        assertEquals(startBytes, CVMat.getMatBytes());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.opencv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.photonvision.common.LoadJNI;
+
+public class MatPoolTest {
+    @BeforeEach
+    public void Init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @Test
+    public void reusesReleasedBuffers() {
+        var pool = new MatPool();
+
+        var first = pool.acquire(480, 640, CvType.CV_8UC3);
+        var firstMat = first.getMat();
+        first.release();
+
+        var second = pool.acquire(480, 640, CvType.CV_8UC3);
+        assertSame(firstMat, second.getMat());
+        assertEquals(480, second.getMat().rows());
+        assertEquals(640, second.getMat().cols());
+
+        second.release();
+        pool.release();
+    }
+
+    @Test
+    public void keysOnSizeAndType() {
+        var pool = new MatPool();
+
+        var color = pool.acquire(480, 640, CvType.CV_8UC3);
+        var colorMat = color.getMat();
+        color.release();
+
+        var grey = pool.acquire(480, 640, CvType.CV_8UC1);
+        assertNotSame(colorMat, grey.getMat());
+        var small = pool.acquire(240, 320, CvType.CV_8UC3);
+        assertNotSame(colorMat, small.getMat());
+
+        grey.release();
+        small.release();
+        pool.release();
+    }
+
+    @Test
+    public void doubleReleaseReturnsOnce() {
+        var pool = new MatPool();
+
+        var mat = pool.acquire(10, 10, CvType.CV_8UC1);
+        mat.release();
+        mat.release();
+
+        var first = pool.acquire(10, 10, CvType.CV_8UC1);
+        var second = pool.acquire(10, 10, CvType.CV_8UC1);
+        assertNotSame(first.getMat(), second.getMat());
+
+        first.release();
+        second.release();
+        pool.release();
+    }
+
+    @Test
+    public void concurrentReleaseReturnsOnce() throws InterruptedException {
+        var pool = new MatPool();
+
+        var mat = pool.acquire(10, 10, CvType.CV_8UC1);
+        var start = new CountDownLatch(1);
+        var threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] =
+                    new Thread(
+                            () -> {
+                                try {
+                                    start.await();
+                                } catch (InterruptedException e) {
+                                    return;
+                                }
+                                mat.release();
+                            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (var thread : threads) thread.join();
+
+        var first = pool.acquire(10, 10, CvType.CV_8UC1);
+        var second = pool.acquire(10, 10, CvType.CV_8UC1);
+        assertNotSame(first.getMat(), second.getMat());
+
+        first.release();
+        second.release();
+        pool.release();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.vision.frame.Frame;
+import org.photonvision.vision.frame.FrameStaticProperties;
+import org.photonvision.vision.frame.FrameThresholdType;
+import org.photonvision.vision.opencv.CVMat;
+import org.photonvision.vision.pipeline.result.VisualOdometryResult;
+
+public class VisualOdometryPipeTest {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final double FOCAL = 400;
+    // How far the camera moves to its right between frames, in meters
+    private static final double STEP = 0.2;
+
+    // Scene points in OpenCV's EDN camera frame, as seen from the first frame
+    private static final double[][] SCENE = new double[300][];
+
+    @BeforeAll
+    public static void init() {
+        LoadJNI.loadLibraries();
+
+        var random = new Random(6);
+        for (int i = 0; i < SCENE.length; i++) {
+            SCENE[i] =
+                    new double[] {
+                        random.nextDouble() * 6 - 3,
+                        random.nextDouble() * 4 - 2,
+                        4 + random.nextDouble() * 6,
+                        100 + random.nextInt(156)
+                    };
+        }
+    }
+
+    @Test
+    public void chainsRotationOnlyUntilScaled() {
+        var pipe = new VisualOdometryPipe();
+        pipe.setParams(createParams());
+
+        assertFalse(run(pipe, 0).hasMotion);
+
+        var firstFix = new Pose3d(1, 2, 0, new Rotation3d());
+        pipe.addTagFix(firstFix);
+        pipe.resetPose(0, firstFix);
+
+        var unscaled = run(pipe, 1);
+        assertTrue(unscaled.hasMotion);
+        assertTrue(Double.isNaN(pipe.getMetersPerStep()));
+        assertEquals(0, unscaled.motion.getTranslation().getNorm(), 1e-9);
+        assertEquals(0, unscaled.pose.getTranslation().getDistance(firstFix.getTranslation()), 1e-9);
+
+        pipe.release();
+    }
+
+    @Test
+    public void scalesStepsFromTagFixes() {
+        var pipe = new VisualOdometryPipe();
+        pipe.setParams(createParams());
+
+        run(pipe, 0);
+        var firstFix = new Pose3d(1, 2, 0, new Rotation3d());
+        pipe.addTagFix(firstFix);
+        pipe.resetPose(0, firstFix);
+
+        run(pipe, 1);
+        // Moving to the camera's right is -y in NWU
+        var secondFix = new Pose3d(1, 2 - STEP, 0, new Rotation3d());
+        pipe.addTagFix(secondFix);
+        pipe.resetPose(1, secondFix);
+        assertEquals(STEP, pipe.getMetersPerStep(), 1e-9);
+
+        var scaled = run(pipe, 2);
+        assertTrue(scaled.hasMotion);
+        assertEquals(STEP, scaled.motion.getTranslation().getNorm(), 1e-6);
+
+        var expected = new Translation3d(1, 2 - 2 * STEP, 0);
+        assertEquals(0, scaled.pose.getTranslation().getDistance(expected), 0.05);
+
+        pipe.release();
+    }
+
+    private static VisualOdometryParams createParams() {
+        var params = new VisualOdometryParams();
+        params.minFeatures = 20;
+        params.imageDifferenceThreshold = 1;
+
+        var camMat = new Mat(3, 3, CvType.CV_64F);
+        camMat.put(0, 0, FOCAL, 0, WIDTH / 2.0, 0, FOCAL, HEIGHT / 2.0, 0, 0, 1);
+        params.cam_mat = camMat;
+        return params;
+    }
+
+    /** Renders the scene with the camera moved {@code step} steps to its right and runs it. */
+    private static VisualOdometryResult run(VisualOdometryPipe pipe, int step) {
+        var image = Mat.zeros(HEIGHT, WIDTH, CvType.CV_8UC1);
+        var corner = new Point();
+        var opposite = new Point();
+        for (var point : SCENE) {
+            double u = FOCAL * (point[0] - step * STEP) / point[2] + WIDTH / 2.0;
+            double v = FOCAL * point[1] / point[2] + HEIGHT / 2.0;
+            corner.x = Math.round(u) - 3;
+            corner.y = Math.round(v) - 3;
+            opposite.x = corner.x + 6;
+            opposite.y = corner.y + 6;
+            Imgproc.rectangle(image, corner, opposite, new Scalar(point[3]), -1);
+        }
+
+        var frame =
+                new Frame(
+                        step,
+                        new CVMat(),
+                        new CVMat(image),
+                        FrameThresholdType.GREYSCALE,
+                        step,
+                        new FrameStaticProperties(WIDTH, HEIGHT, 70, null));
+        var result = pipe.run(frame).output;
+        frame.release();
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipe.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import org.junit.jupiter.api.Test;
+
+public class VisualOdometryTrajectoryTest {
+    private static final Transform3d STEP =
+            new Transform3d(new Translation3d(1, 0, 0), new Rotation3d());
+
+    @Test
+    public void accumulatesMotion() {
+        var trajectory = new VisualOdometryTrajectory(8);
+        for (int i = 1; i <= 3; i++) trajectory.append(i, STEP);
+
+        assertEquals(3, trajectory.size());
+        assertEquals(3, trajectory.getCurrentPose().getX(), 1e-9);
+        assertEquals(STEP, trajectory.getLastMotion());
+        assertEquals(2, trajectory.getPose(1).getX(), 1e-9);
+        assertEquals(1, trajectory.getTimestampNanos(2));
+    }
+
+    @Test
+    public void overwritesOldestPoses() {
+        var trajectory = new VisualOdometryTrajectory(4);
+        for (int i = 1; i <= 10; i++) trajectory.append(i * 10L, STEP);
+
+        assertEquals(4, trajectory.size());
+        assertEquals(100, trajectory.getTimestampNanos(0));
+        assertEquals(70, trajectory.getTimestampNanos(3));
+        assertEquals(8, trajectory.getPoseAt(85).orElseThrow().getX(), 1e-9);
+        assertTrue(trajectory.getPoseAt(60).isEmpty());
+    }
+
+    @Test
+    public void resetRestartsFromKnownPose() {
+        var trajectory = new VisualOdometryTrajectory(4);
+        trajectory.append(1, STEP);
+        trajectory.append(2, STEP);
+
+        var fix = new Pose3d(5, 5, 0, new Rotation3d(0, 0, Math.PI / 2));
+        trajectory.reset(3, fix);
+        assertEquals(1, trajectory.size());
+        assertEquals(fix, trajectory.getCurrentPose());
+
+        // Motion is applied in the camera's frame, so forwards is now +Y
+        trajectory.append(4, STEP);
+        assertEquals(5, trajectory.getCurrentPose().getX(), 1e-9);
+        assertEquals(6, trajectory.getCurrentPose().getY(), 1e-9);
+    }
+}
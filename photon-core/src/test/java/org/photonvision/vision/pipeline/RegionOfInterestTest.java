@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.photonvision.common.LoadJNI;
+import org.photonvision.common.util.numbers.DoubleCouple;
+import org.photonvision.vision.target.TrackedTarget;
+
+public class RegionOfInterestTest {
+    @BeforeEach
+    public void Init() {
+        LoadJNI.loadLibraries();
+    }
+
+    @Test
+    public void disabledIsWholeFrame() {
+        var roi = new RegionOfInterest();
+        assertNull(roi.get(new AdvancedPipelineSettings(), 640, 480));
+    }
+
+    @Test
+    public void staticRegion() {
+        var settings = new AdvancedPipelineSettings();
+        settings.roiEnabled = true;
+        settings.roiRangeX = new DoubleCouple(25.0, 75.0);
+        settings.roiRangeY = new DoubleCouple(50.0, 100.0);
+
+        var roi = new RegionOfInterest();
+        assertEquals(new Rect(160, 240, 320, 240), roi.get(settings, 640, 480));
+    }
+
+    @Test
+    public void followsTargets() {
+        var settings = new AdvancedPipelineSettings();
+        settings.dynamicRoiEnabled = true;
+        settings.dynamicRoiMarginPercent = 50;
+
+        var roi = new RegionOfInterest();
+        var target =
+                new TrackedTarget(
+                        List.of(
+                                new Point(100, 100),
+                                new Point(120, 100),
+                                new Point(120, 110),
+                                new Point(100, 110)));
+        roi.update(List.of(target));
+        assertEquals(new Rect(90, 90, 40, 30), roi.get(settings, 640, 480));
+
+        // Clamped to the frame
+        target =
+                new TrackedTarget(
+                        List.of(new Point(0, 0), new Point(20, 0), new Point(20, 20), new Point(0, 20)));
+        roi.update(List.of(target));
+        assertEquals(new Rect(0, 0, 30, 30), roi.get(settings, 640, 480));
+
+        // Lost targets search the whole frame again
+        roi.update(List.of());
+        assertNull(roi.get(settings, 640, 480));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.vision.processes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SingleSlotQueueTest {
+    @Test
+    public void dropsOldestItem() throws InterruptedException {
+        List<Integer> dropped = new ArrayList<>();
+        var queue = new SingleSlotQueue<Integer>(dropped::add);
+
+        queue.put(1);
+        queue.put(2);
+        queue.put(3);
+
+        assertEquals(3, queue.take());
+        assertEquals(List.of(1, 2), dropped);
+        assertEquals(2, queue.getDroppedCount());
+
+        queue.put(4);
+        queue.clear();
+        assertEquals(List.of(1, 2, 4), dropped);
+    }
+
+    @Test
+    public void takeWaitsForPut() throws InterruptedException {
+        var queue = new SingleSlotQueue<Integer>(it -> {});
+
+        var producer =
+                new Thread(
+                        () -> {
+                            try {
+                                Thread.sleep(50);
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                            queue.put(42);
+                        });
+        producer.start();
+
+        assertEquals(42, queue.take());
+        producer.join();
+    }
+}
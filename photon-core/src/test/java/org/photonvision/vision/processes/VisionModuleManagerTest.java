@@ -17,16 +17,21 @@
 
 package org.photonvision.vision.processes;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import edu.wpi.first.cscore.VideoMode;
+import java.io.File;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.opencv.imgcodecs.Imgcodecs;
 import org.photonvision.common.LoadJNI;
 import org.photonvision.common.configuration.CameraConfiguration;
 import org.photonvision.common.configuration.ConfigManager;
@@ -38,6 +43,7 @@ import org.photonvision.vision.camera.QuirkyCamera;
 import org.photonvision.vision.camera.USBCameras.USBCameraSource;
 import org.photonvision.vision.frame.FrameProvider;
 import org.photonvision.vision.frame.FrameStaticProperties;
+import org.photonvision.vision.frame.StaticFrames;
 import org.photonvision.vision.frame.provider.FileFrameProvider;
 import org.photonvision.vision.pipeline.result.CVPipelineResult;
 
@@ -244,6 +250,53 @@ public class VisionModuleManagerTest {
         assertTrue(idxs.contains(4));
     }
 
+    @Test
+    public void inputSnapshotWithoutInputStream() {
+        ConfigManager.getInstance().load();
+
+        var vmm = new VisionModuleManager();
+
+        var conf = new CameraConfiguration(PVCameraInfo.fromFileInfo("Snapshot", "SnapshotCam"));
+        var imagePath =
+                TestUtils.getWPIImagePath(TestUtils.WPI2019Image.kCargoStraightDark72in, false);
+        var ffp = new FileFrameProvider(imagePath, TestUtils.WPI2019Image.FOV);
+
+        var module = vmm.addSource(new TestSource(ffp, conf));
+
+        // GIVEN a pipeline that doesn't show its input, so frames are made without a colour image
+        assertFalse(module.pipelineManager.getCurrentPipelineSettings().inputShouldShow);
+
+        var snapshotDir =
+                ConfigManager.getInstance().getImageSavePath().resolve(conf.uniqueName).toFile();
+        var oldSnapshots = snapshotDir.listFiles();
+        if (oldSnapshots != null) {
+            for (var file : oldSnapshots) file.delete();
+        }
+
+        // WHEN an input snapshot is taken
+        module.saveInputSnapshot();
+        module.start();
+
+        File[] snapshots = null;
+        for (int i = 0; i < 50 && (snapshots == null || snapshots.length == 0); i++) {
+            sleep(100);
+            snapshots = snapshotDir.listFiles();
+        }
+        module.stop();
+
+        // THEN the camera image is saved, rather than the lost camera frame
+        assertNotNull(snapshots);
+        assertEquals(1, snapshots.length);
+
+        var saved = Imgcodecs.imread(snapshots[0].getAbsolutePath());
+        var expected = Imgcodecs.imread(imagePath.toString());
+        assertNotEquals(StaticFrames.LOST_MAT.size(), saved.size());
+        assertEquals(expected.size(), saved.size());
+
+        saved.release();
+        expected.release();
+    }
+
     private void sleep(int millis) {
         try {
             Thread.sleep(millis);
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.photonvision;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.numbers.N8;
+import edu.wpi.first.util.RuntimeLoader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.PhotonPoseEstimator.ConstrainedSolvepnpParams;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.estimation.OpenCVHelp;
+import org.photonvision.estimation.RotTrlTransform3d;
+import org.photonvision.estimation.TargetModel;
+import org.photonvision.estimation.VisionEstimation;
+import org.photonvision.jni.LibraryLoader;
+import org.photonvision.simulation.SimCameraProperties;
+import org.photonvision.targeting.MultiTargetPNPResult;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+/**
+ * Measures {@link PhotonPoseEstimator#update} with each {@link PoseStrategy}, given a result with
+ * several AprilTags seen by a simulated camera.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoseEstimatorBenchmark {
+    private static final int kTagCount = 4;
+    private static final long kFirstTimestampMicros = 1_000_000;
+    private static final long kSecondTimestampMicros = 1_020_000;
+
+    /** Every strategy is run when no values are given. */
+    @Param public PoseStrategy strategy;
+
+    private final Optional<ConstrainedSolvepnpParams> constrainedPnpParams =
+            Optional.of(new ConstrainedSolvepnpParams(false, 1.0));
+
+    private Optional<Matrix<N3, N3>> cameraMatrix;
+    private Optional<Matrix<N8, N1>> distCoeffs;
+    private PhotonPoseEstimator estimator;
+    private PhotonPipelineResult result;
+
+    @Setup
+    public void setup() throws IOException {
+        if (!LibraryLoader.loadWpiLibraries()) {
+            throw new IllegalStateException("Failed to load WPILib native libraries");
+        }
+        RuntimeLoader.loadLibrary("photontargetingJNI");
+
+        HAL.initialize(1000, 0);
+
+        var cameraProp = new SimCameraProperties();
+        cameraMatrix = Optional.of(cameraProp.getIntrinsics());
+        distCoeffs = Optional.of(cameraProp.getDistCoeffs());
+
+        var tags = new ArrayList<AprilTag>(kTagCount);
+        for (int i = 0; i < kTagCount; i++) {
+            var tagPose = new Pose3d(5, 1.25 + 0.5 * i, 1, new Rotation3d(0, 0, Math.PI));
+            tags.add(new AprilTag(i + 1, tagPose));
+        }
+        var layout = new AprilTagFieldLayout(tags, 16.5, 8);
+
+        var robotPose = new Pose3d(1, 2, 0, new Rotation3d());
+        var robotToCamera = new Transform3d(new Translation3d(0.3, 0, 0.5), new Rotation3d());
+        var cameraPose = robotPose.plus(robotToCamera);
+        var camRt = RotTrlTransform3d.makeRelativeTo(cameraPose);
+
+        var targets = new ArrayList<PhotonTrackedTarget>(kTagCount);
+        var fiducialIds = new ArrayList<Short>(kTagCount);
+        for (var tag : tags) {
+            var corners =
+                    OpenCVHelp.pointsToCorners(
+                            OpenCVHelp.projectPoints(
+                                    cameraMatrix.get(),
+                                    distCoeffs.get(),
+                                    camRt,
+                                    TargetModel.kAprilTag36h11.getFieldVertices(tag.pose)));
+            var cameraToTag = new Transform3d(cameraPose, tag.pose);
+            targets.add(
+                    new PhotonTrackedTarget(
+                            0,
+                            0,
+                            1,
+                            0,
+                            tag.ID,
+                            -1,
+                            -1f,
+                            cameraToTag,
+                            cameraToTag,
+                            0.05 * tag.ID,
+                            corners,
+                            corners));
+            fiducialIds.add((short) tag.ID);
+        }
+        var multitag =
+                VisionEstimation.estimateCamPosePNP(
+                                cameraMatrix.get(),
+                                distCoeffs.get(),
+                                targets,
+                                layout,
+                                TargetModel.kAprilTag36h11)
+                        .map(pnp -> new MultiTargetPNPResult(pnp, fiducialIds));
+        result = new PhotonPipelineResult(1, kFirstTimestampMicros, 0, 0, targets, multitag);
+
+        estimator = new PhotonPoseEstimator(layout, strategy, robotToCamera);
+        estimator.setReferencePose(robotPose);
+        estimator.setLastPose(robotPose);
+        estimator.addHeadingData(kFirstTimestampMicros / 1e6, robotPose.getRotation());
+        estimator.addHeadingData(kSecondTimestampMicros / 1e6, robotPose.getRotation());
+    }
+
+    @TearDown
+    public void teardown() {
+        HAL.shutdown();
+    }
+
+    @Benchmark
+    public Optional<EstimatedRobotPose> update() {
+        // update() skips results with the same timestamp as the last one, so alternate timestamps
+        result.metadata.captureTimestampMicros =
+                result.metadata.captureTimestampMicros == kFirstTimestampMicros
+                        ? kSecondTimestampMicros
+                        : kFirstTimestampMicros;
+        return estimator.update(result, cameraMatrix, distCoeffs, constrainedPnpParams);
+    }
+}
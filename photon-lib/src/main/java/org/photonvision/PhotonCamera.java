@@ -53,6 +53,8 @@ import java.util.Optional;
 import org.opencv.core.Core;
 import org.photonvision.common.hardware.VisionLEDMode;
 import org.photonvision.common.networktables.PacketSubscriber;
+import org.photonvision.struct.LazyPhotonPipelineResult;
+import org.photonvision.targeting.PhotonPipelineMetadata;
 import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.timesync.TimeSyncSingleton;
 
@@ -292,13 +294,51 @@ public class PhotonCamera implements AutoCloseable {
         List<PhotonPipelineResult> ret = new ArrayList<>(changes.size());
         for (var c : changes) {
             var result = c.value;
-            checkTimeSyncOrWarn(result);
+            checkTimeSyncOrWarn(result.metadata);
             ret.add(result);
         }
 
         return ret;
     }
 
+    /**
+     * Fills {@code results} with the pipeline results sent by PhotonVision since the last call to
+     * getAllUnreadResults(), the same as {@link #getAllUnreadResults()}, but without allocating a
+     * new list and result objects every loop.
+     *
+     * <p>The results are decoded into the objects handed out by the previous call to this method,
+     * so they are only valid until it is called again. Copy anything that needs to be kept longer.
+     *
+     * @param results The list to fill, which is cleared first
+     */
+    public void getAllUnreadResults(List<PhotonPipelineResult> results) {
+        verifyVersion();
+        updateDisconnectAlert();
+
+        resultSubscriber.getAllChanges(results);
+        for (int i = 0; i < results.size(); i++) {
+            checkTimeSyncOrWarn(results.get(i).metadata);
+        }
+    }
+
+    /**
+     * The same as {@link #getAllUnreadResults()}, but each result only decodes its targets when they
+     * are accessed. The metadata and multi-tag result are decoded up front. This is cheaper when only
+     * some of the targets are used, such as when only checking {@link
+     * LazyPhotonPipelineResult#hasTargets()}.
+     */
+    public List<LazyPhotonPipelineResult> getAllUnreadLazyResults() {
+        verifyVersion();
+        updateDisconnectAlert();
+
+        var ret = resultSubscriber.decodeAllChanges(LazyPhotonPipelineResult::new);
+        for (var result : ret) {
+            checkTimeSyncOrWarn(result.metadata);
+        }
+
+        return ret;
+    }
+
     /**
      * Returns the latest pipeline result. This is simply the most recent result Received via NT.
      * Calling this multiple times will always return the most recent result.
@@ -319,7 +359,7 @@ public class PhotonCamera implements AutoCloseable {
 
         var result = ret.value;
 
-        checkTimeSyncOrWarn(result);
+        checkTimeSyncOrWarn(result.metadata);
 
         return result;
     }
@@ -328,13 +368,13 @@ public class PhotonCamera implements AutoCloseable {
         disconnectAlert.set(!isConnected());
     }
 
-    private void checkTimeSyncOrWarn(PhotonPipelineResult result) {
-        if (result.metadata.timeSinceLastPong > 5L * 1000000L) {
+    private void checkTimeSyncOrWarn(PhotonPipelineMetadata metadata) {
+        if (metadata.timeSinceLastPong > 5L * 1000000L) {
             String warningText =
                     "PhotonVision coprocessor at path "
                             + path
                             + " is not connected to the TimeSyncServer? It's been "
-                            + String.format("%.2f", result.metadata.timeSinceLastPong / 1e6)
+                            + String.format("%.2f", metadata.timeSinceLastPong / 1e6)
                             + "s since the coprocessor last heard a pong.";
 
             timesyncAlert.setText(warningText);
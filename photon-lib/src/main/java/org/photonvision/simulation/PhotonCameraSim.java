@@ -621,8 +621,7 @@ public class PhotonCameraSim implements AutoCloseable {
     public void submitProcessedFrame(PhotonPipelineResult result, long receiveTimestamp) {
         ts.latencyMillisEntry.set(result.metadata.getLatencyMillis(), receiveTimestamp);
 
-        // Results are now dynamically sized, so let's guess 1024 bytes is big enough
-        ts.resultPublisher.set(result, 1024);
+        ts.resultPublisher.set(result);
 
         boolean hasTargets = result.hasTargets();
         ts.hasTargetEntry.set(hasTargets, receiveTimestamp);
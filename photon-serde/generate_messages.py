@@ -42,6 +42,7 @@ class MessageType(TypedDict):
     # will be 'shim' if shimmed, and the shims will be set
     shimmed: bool
     java_decode_shim: str
+    java_decode_into_shim: str
     java_encode_shim: str
     # C++ helpers
     cpp_include: str
@@ -50,6 +51,10 @@ class MessageType(TypedDict):
     python_decode_shim: str
     # Java import name
     java_import: str
+    # Also generate a lazily decoded Lazy{name} view
+    java_lazy: bool
+    # Field the lazy view's getTimestampSeconds() reads, in microseconds
+    java_lazy_timestamp_micros: str
     # Remember our message hash. Recalculated by us. All intrinsic types are unhashed so this is fine to live here
     message_hash: str
     schema_str: str
@@ -306,13 +311,23 @@ def generate_photon_messages(cpp_java_root, py_root, template_root):
 
         message_hash = get_message_hash(messages, message)
 
-        for output_name, template, output_folder in [
+        outputs = [
             [java_name, java_template, java_output_dir],
             [cpp_serde_header_name, cpp_serde_header_template, cpp_serde_header_dir],
             [cpp_serde_source_name, cpp_serde_source_template, cpp_serde_source_dir],
             [cpp_struct_header_name, cpp_struct_header_template, cpp_struct_header_dir],
             [py_name, py_template, py_serde_source_dir],
-        ]:
+        ]
+        if message.get("java_lazy", False):
+            outputs.append(
+                [
+                    f"Lazy{message['name']}.java",
+                    env.get_template("LazyMessage.java.jinja"),
+                    java_output_dir,
+                ]
+            )
+
+        for output_name, template, output_folder in outputs:
             # Hack in our message getter
             template.globals["get_message_by_name"] = lambda name: get_message_by_name(
                 messages, name
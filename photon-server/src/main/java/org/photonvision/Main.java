@@ -40,6 +40,7 @@ import org.photonvision.common.logging.Logger;
 import org.photonvision.common.logging.PvCSCoreLogger;
 import org.photonvision.common.networking.NetworkManager;
 import org.photonvision.common.util.TestUtils;
+import org.photonvision.common.util.TimedTaskManager;
 import org.photonvision.server.Server;
 import org.photonvision.vision.apriltag.AprilTagFamily;
 import org.photonvision.vision.camera.PVCameraInfo;
@@ -59,6 +60,7 @@ public class Main {
     private static boolean isSmoketest = false;
     private static Path testModeFolder = null;
     private static boolean printDebugLogs;
+    private static int matSampleInterval = 0;
 
     private static boolean handleArgs(String[] args) throws ParseException {
         final var options = new Options();
@@ -83,6 +85,11 @@ public class Main {
                 false,
                 "Exit Photon after loading native libraries and camera configs, but before starting up camera runners");
         options.addOption("p", "platform", true, "Specify platform override, based on Platform enum");
+        options.addOption(
+                "m",
+                "mat-sample-interval",
+                true,
+                "Record where one in every N OpenCV Mats was allocated, and periodically log the ones still alive");
 
         CommandLineParser parser = new DefaultParser();
         CommandLine cmd = parser.parse(options, args);
@@ -120,6 +127,17 @@ public class Main {
                 isSmoketest = true;
             }
 
+            if (cmd.hasOption("mat-sample-interval")) {
+                String intervalStr = cmd.getOptionValue("mat-sample-interval");
+                try {
+                    matSampleInterval = Integer.parseInt(intervalStr);
+                    logger.info("Sampling one in every " + matSampleInterval + " Mat allocations");
+                } catch (NumberFormatException e) {
+                    logger.error("Invalid Mat sample interval: " + intervalStr);
+                    return false;
+                }
+            }
+
             if (cmd.hasOption("platform")) {
                 String platStr = cmd.getOptionValue("platform");
                 try {
@@ -256,6 +274,11 @@ public class Main {
 
         CVMat.enablePrint(false);
         PipelineProfiler.enablePrint(false);
+        if (matSampleInterval > 0) {
+            CVMat.setAllocationSampleInterval(matSampleInterval);
+            TimedTaskManager.getInstance()
+                    .addTask("CVMat Leak Report", CVMat::logSampledAllocations, 60000);
+        }
 
         var logLevel = printDebugLogs ? LogLevel.TRACE : LogLevel.DEBUG;
         Logger.setLevel(LogGroup.Camera, logLevel);
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) PhotonVision
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// THIS FILE WAS AUTO-GENERATED BY ./photon-serde/generate_messages.py. DO NOT MODIFY
+
+package org.photonvision.struct;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import org.photonvision.common.dataflow.structures.Packet;
+
+// Assume that the base class lives here and we can import it
+import org.photonvision.targeting.*;
+
+// WPILib imports (if any)
+
+/**
+ * Auto-generated lazily decoded view of a packed PhotonPipelineResult. Everything except variable length
+ * arrays of structs is decoded up front. Elements of those arrays are only decoded the first time
+ * they are accessed, so the packet must not be changed while this view is in use.
+ */
+public class LazyPhotonPipelineResult {
+    private final Packet packet;
+
+    public final PhotonPipelineMetadata metadata;
+    // Where each element of targets starts in the packet
+    private final int[] targetsOffsets;
+    private final PhotonTrackedTarget[] targets;
+    public final Optional<MultiTargetPNPResult> multitagResult;
+
+    /**
+     * Decodes a PhotonPipelineResult starting at the packet's read position, skipping over the elements of
+     * variable length arrays of structs.
+     *
+     * @param packet The packet to read from
+     */
+    public LazyPhotonPipelineResult(Packet packet) {
+        this.packet = packet;
+
+        // metadata is of non-intrinsic type PhotonPipelineMetadata
+        metadata = PhotonPipelineMetadata.photonStruct.unpack(packet);
+
+        // targets is a custom VLA! Only remember where each element starts
+        targetsOffsets = new int[packet.decodeByte()];
+        for (int i = 0; i < targetsOffsets.length; i++) {
+            targetsOffsets[i] = packet.getReadPos();
+            PhotonTrackedTarget.photonStruct.skip(packet);
+        }
+        targets = new PhotonTrackedTarget[targetsOffsets.length];
+
+        // multitagResult is optional! it better not be a VLA too
+        multitagResult = packet.decodeOptional(MultiTargetPNPResult.photonStruct);
+    }
+
+    /** Gets whether targets has any elements, without decoding any of them. */
+    public boolean hasTargets() {
+        return targets.length > 0;
+    }
+
+    /** Gets the number of elements in targets, without decoding any of them. */
+    public int getTargetCount() {
+        return targets.length;
+    }
+
+    /**
+     * Gets one element of targets, decoding it the first time it is accessed.
+     *
+     * @param index The index of the element
+     */
+    public PhotonTrackedTarget getTarget(int index) {
+        if (targets[index] == null) {
+            packet.setReadPos(targetsOffsets[index]);
+            targets[index] = PhotonTrackedTarget.photonStruct.unpack(packet);
+        }
+        return targets[index];
+    }
+
+    /**
+     * Gets the timestamp in seconds, the same as {@link PhotonPipelineResult#getTimestampSeconds()}.
+     *
+     * @return The timestamp in seconds
+     */
+    public double getTimestampSeconds() {
+        return metadata.captureTimestampMicros / 1e6;
+    }
+
+    /** Decodes anything not decoded yet, and returns the whole PhotonPipelineResult. */
+    public PhotonPipelineResult toPhotonPipelineResult() {
+        var ret = new PhotonPipelineResult();
+        ret.metadata = metadata;
+        ret.targets = new ArrayList<>(targets.length);
+        for (int i = 0; i < targets.length; i++) {
+            ret.targets.add(getTarget(i));
+        }
+        ret.multitagResult = multitagResult;
+        return ret;
+    }
+}
@@ -55,6 +55,15 @@ public class MultiTargetPNPResultSerde implements PacketSerde<MultiTargetPNPResu
         throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
     }
 
+    @Override
+    public int getByteSize(MultiTargetPNPResult value) {
+        int size = 0;
+        size += PnpResult.photonStruct.getByteSize(value.estimatedPose);
+        // length byte, then each element
+        size += 1 + value.fiducialIDsUsed.size() * 2;
+        return size;
+    }
+
     @Override
     public void pack(Packet packet, MultiTargetPNPResult value) {
         // field estimatedPose is of non-intrinsic type PnpResult
@@ -77,6 +86,30 @@ public class MultiTargetPNPResultSerde implements PacketSerde<MultiTargetPNPResu
         return ret;
     }
 
+    @Override
+    public MultiTargetPNPResult unpackInto(Packet packet, MultiTargetPNPResult ret) {
+        if (ret == null) {
+            return unpack(packet);
+        }
+
+        // estimatedPose is of non-intrinsic type PnpResult
+        ret.estimatedPose = PnpResult.photonStruct.unpackInto(packet, ret.estimatedPose);
+
+        // fiducialIDsUsed is a custom VLA!
+        ret.fiducialIDsUsed = packet.decodeShortListInto(ret.fiducialIDsUsed);
+
+        return ret;
+    }
+
+    @Override
+    public void skip(Packet packet) {
+        // estimatedPose is of non-intrinsic type PnpResult
+        PnpResult.photonStruct.skip(packet);
+
+        // fiducialIDsUsed is a custom VLA!
+        packet.skip(packet.decodeByte() * 2);
+    }
+
     @Override
     public PacketSerde<?>[] getNestedPhotonMessages() {
         return new PacketSerde<?>[] {
@@ -55,6 +55,16 @@ public class PhotonPipelineMetadataSerde implements PacketSerde<PhotonPipelineMe
         throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
     }
 
+    @Override
+    public int getByteSize(PhotonPipelineMetadata value) {
+        int size = 0;
+        size += 8;
+        size += 8;
+        size += 8;
+        size += 8;
+        return size;
+    }
+
     @Override
     public void pack(Packet packet, PhotonPipelineMetadata value) {
         // field sequenceID is of intrinsic type int64
@@ -89,6 +99,42 @@ public class PhotonPipelineMetadataSerde implements PacketSerde<PhotonPipelineMe
         return ret;
     }
 
+    @Override
+    public PhotonPipelineMetadata unpackInto(Packet packet, PhotonPipelineMetadata ret) {
+        if (ret == null) {
+            return unpack(packet);
+        }
+
+        // sequenceID is of intrinsic type int64
+        ret.sequenceID = packet.decodeLong();
+
+        // captureTimestampMicros is of intrinsic type int64
+        ret.captureTimestampMicros = packet.decodeLong();
+
+        // publishTimestampMicros is of intrinsic type int64
+        ret.publishTimestampMicros = packet.decodeLong();
+
+        // timeSinceLastPong is of intrinsic type int64
+        ret.timeSinceLastPong = packet.decodeLong();
+
+        return ret;
+    }
+
+    @Override
+    public void skip(Packet packet) {
+        // sequenceID is of intrinsic type int64
+        packet.skip(8);
+
+        // captureTimestampMicros is of intrinsic type int64
+        packet.skip(8);
+
+        // publishTimestampMicros is of intrinsic type int64
+        packet.skip(8);
+
+        // timeSinceLastPong is of intrinsic type int64
+        packet.skip(8);
+    }
+
     @Override
     public PacketSerde<?>[] getNestedPhotonMessages() {
         return new PacketSerde<?>[] {
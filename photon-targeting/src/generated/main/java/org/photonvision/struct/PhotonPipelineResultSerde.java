@@ -55,6 +55,23 @@ public class PhotonPipelineResultSerde implements PacketSerde<PhotonPipelineResu
         throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
     }
 
+    @Override
+    public int getByteSize(PhotonPipelineResult value) {
+        int size = 0;
+        size += PhotonPipelineMetadata.photonStruct.getByteSize(value.metadata);
+        // length byte, then each element
+        size += 1;
+        for (var element : value.targets) {
+            size += PhotonTrackedTarget.photonStruct.getByteSize(element);
+        }
+        // presence flag, then the value if there is one
+        size += 1;
+        if (value.multitagResult.isPresent()) {
+            size += MultiTargetPNPResult.photonStruct.getByteSize(value.multitagResult.get());
+        }
+        return size;
+    }
+
     @Override
     public void pack(Packet packet, PhotonPipelineResult value) {
         // field metadata is of non-intrinsic type PhotonPipelineMetadata
@@ -83,6 +100,40 @@ public class PhotonPipelineResultSerde implements PacketSerde<PhotonPipelineResu
         return ret;
     }
 
+    @Override
+    public PhotonPipelineResult unpackInto(Packet packet, PhotonPipelineResult ret) {
+        if (ret == null) {
+            return unpack(packet);
+        }
+
+        // metadata is of non-intrinsic type PhotonPipelineMetadata
+        ret.metadata = PhotonPipelineMetadata.photonStruct.unpackInto(packet, ret.metadata);
+
+        // targets is a custom VLA!
+        ret.targets = packet.decodeListInto(PhotonTrackedTarget.photonStruct, ret.targets);
+
+        // multitagResult is optional! it better not be a VLA too
+        ret.multitagResult = packet.decodeOptionalInto(MultiTargetPNPResult.photonStruct, ret.multitagResult);
+
+        return ret;
+    }
+
+    @Override
+    public void skip(Packet packet) {
+        // metadata is of non-intrinsic type PhotonPipelineMetadata
+        PhotonPipelineMetadata.photonStruct.skip(packet);
+
+        // targets is a custom VLA!
+        for (int i = packet.decodeByte(); i > 0; i--) {
+            PhotonTrackedTarget.photonStruct.skip(packet);
+        }
+
+        // multitagResult is optional! it better not be a VLA too
+        if (packet.decodeBoolean()) {
+            MultiTargetPNPResult.photonStruct.skip(packet);
+        }
+    }
+
     @Override
     public PacketSerde<?>[] getNestedPhotonMessages() {
         return new PacketSerde<?>[] {
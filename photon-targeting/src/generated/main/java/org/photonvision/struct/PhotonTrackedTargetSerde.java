@@ -55,6 +55,32 @@ public class PhotonTrackedTargetSerde implements PacketSerde<PhotonTrackedTarget
         throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
     }
 
+    @Override
+    public int getByteSize(PhotonTrackedTarget value) {
+        int size = 0;
+        size += 8;
+        size += 8;
+        size += 8;
+        size += 8;
+        size += 4;
+        size += 4;
+        size += 4;
+        size += PacketUtils.TRANSFORM3D_BYTE_SIZE;
+        size += PacketUtils.TRANSFORM3D_BYTE_SIZE;
+        size += 8;
+        // length byte, then each element
+        size += 1;
+        for (var element : value.minAreaRectCorners) {
+            size += TargetCorner.photonStruct.getByteSize(element);
+        }
+        // length byte, then each element
+        size += 1;
+        for (var element : value.detectedCorners) {
+            size += TargetCorner.photonStruct.getByteSize(element);
+        }
+        return size;
+    }
+
     @Override
     public void pack(Packet packet, PhotonTrackedTarget value) {
         // field yaw is of intrinsic type float64
@@ -133,6 +159,90 @@ public class PhotonTrackedTargetSerde implements PacketSerde<PhotonTrackedTarget
         return ret;
     }
 
+    @Override
+    public PhotonTrackedTarget unpackInto(Packet packet, PhotonTrackedTarget ret) {
+        if (ret == null) {
+            return unpack(packet);
+        }
+
+        // yaw is of intrinsic type float64
+        ret.yaw = packet.decodeDouble();
+
+        // pitch is of intrinsic type float64
+        ret.pitch = packet.decodeDouble();
+
+        // area is of intrinsic type float64
+        ret.area = packet.decodeDouble();
+
+        // skew is of intrinsic type float64
+        ret.skew = packet.decodeDouble();
+
+        // fiducialId is of intrinsic type int32
+        ret.fiducialId = packet.decodeInt();
+
+        // objDetectId is of intrinsic type int32
+        ret.objDetectId = packet.decodeInt();
+
+        // objDetectConf is of intrinsic type float32
+        ret.objDetectConf = packet.decodeFloat();
+
+        ret.bestCameraToTarget = PacketUtils.unpackTransform3dInto(packet, ret.bestCameraToTarget);
+
+        ret.altCameraToTarget = PacketUtils.unpackTransform3dInto(packet, ret.altCameraToTarget);
+
+        // poseAmbiguity is of intrinsic type float64
+        ret.poseAmbiguity = packet.decodeDouble();
+
+        // minAreaRectCorners is a custom VLA!
+        ret.minAreaRectCorners = packet.decodeListInto(TargetCorner.photonStruct, ret.minAreaRectCorners);
+
+        // detectedCorners is a custom VLA!
+        ret.detectedCorners = packet.decodeListInto(TargetCorner.photonStruct, ret.detectedCorners);
+
+        return ret;
+    }
+
+    @Override
+    public void skip(Packet packet) {
+        // yaw is of intrinsic type float64
+        packet.skip(8);
+
+        // pitch is of intrinsic type float64
+        packet.skip(8);
+
+        // area is of intrinsic type float64
+        packet.skip(8);
+
+        // skew is of intrinsic type float64
+        packet.skip(8);
+
+        // fiducialId is of intrinsic type int32
+        packet.skip(4);
+
+        // objDetectId is of intrinsic type int32
+        packet.skip(4);
+
+        // objDetectConf is of intrinsic type float32
+        packet.skip(4);
+
+        packet.skip(PacketUtils.TRANSFORM3D_BYTE_SIZE);
+
+        packet.skip(PacketUtils.TRANSFORM3D_BYTE_SIZE);
+
+        // poseAmbiguity is of intrinsic type float64
+        packet.skip(8);
+
+        // minAreaRectCorners is a custom VLA!
+        for (int i = packet.decodeByte(); i > 0; i--) {
+            TargetCorner.photonStruct.skip(packet);
+        }
+
+        // detectedCorners is a custom VLA!
+        for (int i = packet.decodeByte(); i > 0; i--) {
+            TargetCorner.photonStruct.skip(packet);
+        }
+    }
+
     @Override
     public PacketSerde<?>[] getNestedPhotonMessages() {
         return new PacketSerde<?>[] {
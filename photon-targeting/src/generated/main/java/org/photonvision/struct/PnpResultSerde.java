@@ -55,6 +55,17 @@ public class PnpResultSerde implements PacketSerde<PnpResult> {
         throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
     }
 
+    @Override
+    public int getByteSize(PnpResult value) {
+        int size = 0;
+        size += PacketUtils.TRANSFORM3D_BYTE_SIZE;
+        size += PacketUtils.TRANSFORM3D_BYTE_SIZE;
+        size += 8;
+        size += 8;
+        size += 8;
+        return size;
+    }
+
     @Override
     public void pack(Packet packet, PnpResult value) {
         PacketUtils.packTransform3d(packet, value.best);
@@ -91,6 +102,44 @@ public class PnpResultSerde implements PacketSerde<PnpResult> {
         return ret;
     }
 
+    @Override
+    public PnpResult unpackInto(Packet packet, PnpResult ret) {
+        if (ret == null) {
+            return unpack(packet);
+        }
+
+        ret.best = PacketUtils.unpackTransform3dInto(packet, ret.best);
+
+        ret.alt = PacketUtils.unpackTransform3dInto(packet, ret.alt);
+
+        // bestReprojErr is of intrinsic type float64
+        ret.bestReprojErr = packet.decodeDouble();
+
+        // altReprojErr is of intrinsic type float64
+        ret.altReprojErr = packet.decodeDouble();
+
+        // ambiguity is of intrinsic type float64
+        ret.ambiguity = packet.decodeDouble();
+
+        return ret;
+    }
+
+    @Override
+    public void skip(Packet packet) {
+        packet.skip(PacketUtils.TRANSFORM3D_BYTE_SIZE);
+
+        packet.skip(PacketUtils.TRANSFORM3D_BYTE_SIZE);
+
+        // bestReprojErr is of intrinsic type float64
+        packet.skip(8);
+
+        // altReprojErr is of intrinsic type float64
+        packet.skip(8);
+
+        // ambiguity is of intrinsic type float64
+        packet.skip(8);
+    }
+
     @Override
     public PacketSerde<?>[] getNestedPhotonMessages() {
         return new PacketSerde<?>[] {
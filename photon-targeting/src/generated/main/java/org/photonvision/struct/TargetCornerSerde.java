@@ -55,6 +55,14 @@ public class TargetCornerSerde implements PacketSerde<TargetCorner> {
         throw new UnsupportedOperationException("Unimplemented method 'getMaxByteSize'");
     }
 
+    @Override
+    public int getByteSize(TargetCorner value) {
+        int size = 0;
+        size += 8;
+        size += 8;
+        return size;
+    }
+
     @Override
     public void pack(Packet packet, TargetCorner value) {
         // field x is of intrinsic type float64
@@ -77,6 +85,30 @@ public class TargetCornerSerde implements PacketSerde<TargetCorner> {
         return ret;
     }
 
+    @Override
+    public TargetCorner unpackInto(Packet packet, TargetCorner ret) {
+        if (ret == null) {
+            return unpack(packet);
+        }
+
+        // x is of intrinsic type float64
+        ret.x = packet.decodeDouble();
+
+        // y is of intrinsic type float64
+        ret.y = packet.decodeDouble();
+
+        return ret;
+    }
+
+    @Override
+    public void skip(Packet packet) {
+        // x is of intrinsic type float64
+        packet.skip(8);
+
+        // y is of intrinsic type float64
+        packet.skip(8);
+    }
+
     @Override
     public PacketSerde<?>[] getNestedPhotonMessages() {
         return new PacketSerde<?>[] {
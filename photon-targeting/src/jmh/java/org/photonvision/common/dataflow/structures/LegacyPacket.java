@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.dataflow.structures;
+
+import java.util.Arrays;
+
+/**
+ * The byte-at-a-time encoding that {@link Packet} used before it switched to VarHandle views, kept
+ * around so {@link PacketBenchmark} can compare the two. The wire format is the same.
+ */
+public class LegacyPacket extends Packet {
+    public LegacyPacket(int size) {
+        super(size);
+    }
+
+    private void grow(int bytesToAdd) {
+        int minCapacity = writePos + bytesToAdd;
+        if (minCapacity > packetData.length) {
+            packetData = Arrays.copyOf(packetData, Math.max(packetData.length * 2, minCapacity));
+        }
+    }
+
+    @Override
+    public void encode(short src) {
+        grow(2);
+        packetData[writePos++] = (byte) src;
+        packetData[writePos++] = (byte) (src >>> 8);
+    }
+
+    @Override
+    public void encode(int src) {
+        grow(4);
+        packetData[writePos++] = (byte) src;
+        packetData[writePos++] = (byte) (src >>> 8);
+        packetData[writePos++] = (byte) (src >>> 16);
+        packetData[writePos++] = (byte) (src >>> 24);
+    }
+
+    @Override
+    public void encode(float src) {
+        grow(4);
+        int data = Float.floatToIntBits(src);
+        packetData[writePos++] = (byte) (data & 0xff);
+        packetData[writePos++] = (byte) ((data >> 8) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 16) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 24) & 0xff);
+    }
+
+    @Override
+    public void encode(long data) {
+        grow(8);
+        packetData[writePos++] = (byte) (data & 0xff);
+        packetData[writePos++] = (byte) ((data >> 8) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 16) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 24) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 32) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 40) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 48) & 0xff);
+        packetData[writePos++] = (byte) ((data >> 56) & 0xff);
+    }
+
+    @Override
+    public void encode(double src) {
+        encode(Double.doubleToRawLongBits(src));
+    }
+
+    @Override
+    public void encode(double[] data) {
+        for (double d : data) {
+            encode(d);
+        }
+    }
+
+    @Override
+    public int decodeInt() {
+        if (packetData.length < readPos + 3) {
+            return 0;
+        }
+        return (0xff & packetData[readPos++])
+                | (0xff & packetData[readPos++]) << 8
+                | (0xff & packetData[readPos++]) << 16
+                | (0xff & packetData[readPos++]) << 24;
+    }
+
+    @Override
+    public long decodeLong() {
+        if (packetData.length < (readPos + 7)) {
+            return 0;
+        }
+        return (0xff & packetData[readPos++]
+                | (long) (0xff & packetData[readPos++]) << 8
+                | (long) (0xff & packetData[readPos++]) << 16
+                | (long) (0xff & packetData[readPos++]) << 24
+                | (long) (0xff & packetData[readPos++]) << 32
+                | (long) (0xff & packetData[readPos++]) << 40
+                | (long) (0xff & packetData[readPos++]) << 48
+                | (long) (0xff & packetData[readPos++]) << 56);
+    }
+
+    @Override
+    public double decodeDouble() {
+        return Double.longBitsToDouble(decodeLong());
+    }
+
+    @Override
+    public float decodeFloat() {
+        return Float.intBitsToFloat(decodeInt());
+    }
+
+    @Override
+    public double[] decodeDoubleArray(int len) {
+        double[] ret = new double[len];
+        for (int i = 0; i < len; i++) {
+            ret[i] = decodeDouble();
+        }
+        return ret;
+    }
+
+    @Override
+    public short decodeShort() {
+        if (packetData.length < readPos + 1) {
+            return 0;
+        }
+        return (short) ((0xff & packetData[readPos++]) | (0xff & packetData[readPos++]) << 8);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.dataflow.structures;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.targeting.MultiTargetPNPResult;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.PnpResult;
+import org.photonvision.targeting.TargetCorner;
+
+/** Compares {@link Packet} against the old byte-at-a-time {@link LegacyPacket}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBenchmark {
+    @Param({"1", "8", "32"})
+    public int targetCount;
+
+    @Param({"legacy", "current"})
+    public String implementation;
+
+    private PhotonPipelineResult result;
+    private int size;
+    private Packet encodePacket;
+    private Packet decodePacket;
+
+    @Setup
+    public void setup() {
+        result = makeResult(targetCount);
+        size = PhotonPipelineResult.photonStruct.getByteSize(result);
+
+        encodePacket = makePacket(size);
+        decodePacket = makePacket(size);
+        PhotonPipelineResult.photonStruct.pack(decodePacket, result);
+    }
+
+    @Benchmark
+    public Packet encode() {
+        encodePacket.reset(size);
+        PhotonPipelineResult.photonStruct.pack(encodePacket, result);
+        return encodePacket;
+    }
+
+    @Benchmark
+    public PhotonPipelineResult decode() {
+        decodePacket.setReadPos(0);
+        return PhotonPipelineResult.photonStruct.unpack(decodePacket);
+    }
+
+    private Packet makePacket(int size) {
+        return implementation.equals("legacy") ? new LegacyPacket(size) : new Packet(size);
+    }
+
+    static PhotonPipelineResult makeResult(int targetCount) {
+        var targets = new ArrayList<PhotonTrackedTarget>(targetCount);
+        var ids = new ArrayList<Short>(targetCount);
+        for (int i = 0; i < targetCount; i++) {
+            var corners =
+                    List.of(
+                            new TargetCorner(i, i + 1),
+                            new TargetCorner(i + 10, i + 1),
+                            new TargetCorner(i + 10, i + 11),
+                            new TargetCorner(i, i + 11));
+            var cameraToTarget =
+                    new Transform3d(
+                            new Translation3d(1 + i, 0.5, 0.25), new Rotation3d(0, 0.1, 0.2 * i));
+            targets.add(
+                    new PhotonTrackedTarget(
+                            0.5 * i,
+                            -0.25 * i,
+                            1.5,
+                            0.1,
+                            i + 1,
+                            -1,
+                            -1f,
+                            cameraToTarget,
+                            cameraToTarget,
+                            0.05,
+                            corners,
+                            corners));
+            ids.add((short) (i + 1));
+        }
+
+        var fieldToCamera = new Transform3d(new Translation3d(1, 2, 0.5), new Rotation3d(0, 0, 1));
+        var multitag = new MultiTargetPNPResult(new PnpResult(fieldToCamera, 0.02), ids);
+        return new PhotonPipelineResult(1, 2000, 3000, 100, targets, Optional.of(multitag));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.common.dataflow.structures;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.struct.LazyPhotonPipelineResult;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+/**
+ * Measures each way of getting a {@link PhotonPipelineResult} in and out of a {@link Packet}, as
+ * done by PhotonVision when publishing and by PhotonLib when reading every loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerdeBenchmark {
+    @Param({"1", "8", "32"})
+    public int targetCount;
+
+    private PhotonPipelineResult result;
+    private Packet encodePacket;
+    private Packet decodePacket;
+    private PhotonPipelineResult reuse;
+
+    @Setup
+    public void setup() {
+        result = PacketBenchmark.makeResult(targetCount);
+
+        encodePacket = new Packet(PhotonPipelineResult.photonStruct.getByteSize(result));
+        decodePacket = new Packet(PhotonPipelineResult.photonStruct.getByteSize(result));
+        PhotonPipelineResult.photonStruct.pack(decodePacket, result);
+
+        reuse = PhotonPipelineResult.photonStruct.unpack(decodePacket);
+    }
+
+    @Benchmark
+    public int getByteSize() {
+        return PhotonPipelineResult.photonStruct.getByteSize(result);
+    }
+
+    @Benchmark
+    public Packet pack() {
+        encodePacket.reset(PhotonPipelineResult.photonStruct.getByteSize(result));
+        PhotonPipelineResult.photonStruct.pack(encodePacket, result);
+        return encodePacket;
+    }
+
+    @Benchmark
+    public PhotonPipelineResult unpack() {
+        decodePacket.setReadPos(0);
+        return PhotonPipelineResult.photonStruct.unpack(decodePacket);
+    }
+
+    @Benchmark
+    public PhotonPipelineResult unpackInto() {
+        decodePacket.setReadPos(0);
+        reuse = PhotonPipelineResult.photonStruct.unpackInto(decodePacket, reuse);
+        return reuse;
+    }
+
+    /** Decodes only the metadata and the first target, like a robot aiming at the best target. */
+    @Benchmark
+    public PhotonTrackedTarget unpackLazy() {
+        decodePacket.setReadPos(0);
+        return new LazyPhotonPipelineResult(decodePacket).getTarget(0);
+    }
+}
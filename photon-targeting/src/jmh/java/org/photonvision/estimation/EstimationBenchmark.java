@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) Photon Vision.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.photonvision.estimation;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.MatBuilder;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.numbers.N8;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.opencv.core.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.jni.LibraryLoader;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.PnpResult;
+
+/**
+ * Measures the OpenCV backed estimation helpers that PhotonLib runs on the robot, using tags
+ * projected into a simulated 640x480 camera.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstimationBenchmark {
+    /** One tag is solved with SOLVEPNP_SQUARE, more than one with SQPNP. */
+    @Param({"1", "4"})
+    public int tagCount;
+
+    private final Matrix<N3, N3> cameraMatrix =
+            MatBuilder.fill(Nat.N3(), Nat.N3(), 500, 0, 320, 0, 500, 240, 0, 0, 1);
+    private final Matrix<N8, N1> distCoeffs = VecBuilder.fill(0.1, -0.05, 0, 0, 0.01, 0, 0, 0);
+
+    private AprilTagFieldLayout layout;
+    private RotTrlTransform3d camRt;
+    private List<Translation3d> tagVertices;
+    private Point[] imagePoints;
+    private List<PhotonTrackedTarget> targets;
+
+    @Setup
+    public void setup() {
+        if (!LibraryLoader.loadWpiLibraries()) {
+            throw new IllegalStateException("Failed to load WPILib native libraries");
+        }
+
+        var tags = new ArrayList<AprilTag>(tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            var tagPose = new Pose3d(4, 1.25 + 0.5 * i, 1, new Rotation3d(0, 0, Math.PI));
+            tags.add(new AprilTag(i + 1, tagPose));
+        }
+        layout = new AprilTagFieldLayout(tags, 16.5, 8);
+
+        camRt = RotTrlTransform3d.makeRelativeTo(new Pose3d(0, 2, 0.8, new Rotation3d()));
+
+        tagVertices = new ArrayList<>(4 * tagCount);
+        targets = new ArrayList<>(tagCount);
+        for (var tag : tags) {
+            var vertices = TargetModel.kAprilTag36h11.getFieldVertices(tag.pose);
+            tagVertices.addAll(vertices);
+
+            var corners =
+                    OpenCVHelp.pointsToCorners(
+                            OpenCVHelp.projectPoints(cameraMatrix, distCoeffs, camRt, vertices));
+            targets.add(
+                    new PhotonTrackedTarget(
+                            0,
+                            0,
+                            1,
+                            0,
+                            tag.ID,
+                            -1,
+                            -1f,
+                            Transform3d.kZero,
+                            Transform3d.kZero,
+                            0,
+                            corners,
+                            corners));
+        }
+        imagePoints = OpenCVHelp.projectPoints(cameraMatrix, distCoeffs, camRt, tagVertices);
+    }
+
+    @Benchmark
+    public Point[] projectPoints() {
+        return OpenCVHelp.projectPoints(cameraMatrix, distCoeffs, camRt, tagVertices);
+    }
+
+    @Benchmark
+    public Point[] undistortPoints() {
+        return OpenCVHelp.undistortPoints(cameraMatrix, distCoeffs, imagePoints);
+    }
+
+    @Benchmark
+    public Optional<PnpResult> estimateCamPosePNP() {
+        return VisionEstimation.estimateCamPosePNP(
+                cameraMatrix, distCoeffs, targets, layout, TargetModel.kAprilTag36h11);
+    }
+}
@@ -17,6 +17,10 @@
 
 package org.photonvision.common.dataflow.structures;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -25,6 +29,14 @@ import org.photonvision.targeting.serde.PhotonStructSerializable;
 
 /** A packet that holds byte-packed data to be sent over NetworkTables. */
 public class Packet {
+    // Little-endian views of the byte array, so multi-byte values are read and written in one go
+    private static final VarHandle SHORT_VIEW =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_VIEW =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
     // Data stored in the packet.
     byte[] packetData;
     // Read and write positions.
@@ -48,9 +60,25 @@ public class Packet {
         packetData = data;
     }
 
-    /** Clears the packet and resets the read and write positions. */
+    /**
+     * Clears the packet and resets the read and write positions. The buffer is kept as-is, so old
+     * bytes are only overwritten as new data is written.
+     */
     public void clear() {
-        packetData = new byte[packetData.length];
+        readPos = 0;
+        writePos = 0;
+    }
+
+    /**
+     * Rewinds the packet so it can be written again, like {@link #clear()}, and grows the buffer if
+     * it can't already hold the given number of bytes.
+     *
+     * @param size The number of bytes about to be written.
+     */
+    public void reset(int size) {
+        if (packetData.length < size) {
+            packetData = new byte[size];
+        }
         readPos = 0;
         writePos = 0;
     }
@@ -76,6 +104,52 @@ public class Packet {
         return Arrays.copyOfRange(packetData, 0, writePos);
     }
 
+    /**
+     * Returns the packet's buffer without copying it. Only the first {@link #getWritePos()} bytes
+     * have been written, and the buffer is replaced if the packet has to grow.
+     *
+     * @return The packet buffer.
+     */
+    public byte[] getBuffer() {
+        return packetData;
+    }
+
+    /**
+     * Returns the number of bytes written since the packet was last cleared.
+     *
+     * @return The write position.
+     */
+    public int getWritePos() {
+        return writePos;
+    }
+
+    /**
+     * Returns the offset of the next byte to be decoded.
+     *
+     * @return The read position.
+     */
+    public int getReadPos() {
+        return readPos;
+    }
+
+    /**
+     * Moves the read position, so decoding continues from the given offset.
+     *
+     * @param readPos The offset of the next byte to decode.
+     */
+    public void setReadPos(int readPos) {
+        this.readPos = readPos;
+    }
+
+    /**
+     * Moves the read position past the given number of bytes without decoding them.
+     *
+     * @param numBytes The number of bytes to skip.
+     */
+    public void skip(int numBytes) {
+        readPos += numBytes;
+    }
+
     /**
      * Sets the packet data.
      *
@@ -160,8 +234,8 @@ public class Packet {
      */
     public void encode(short src) {
         ensureCapacity(2);
-        packetData[writePos++] = (byte) src;
-        packetData[writePos++] = (byte) (src >>> 8);
+        SHORT_VIEW.set(packetData, writePos, src);
+        writePos += 2;
     }
 
     /**
@@ -171,10 +245,8 @@ public class Packet {
      */
     public void encode(int src) {
         ensureCapacity(4);
-        packetData[writePos++] = (byte) src;
-        packetData[writePos++] = (byte) (src >>> 8);
-        packetData[writePos++] = (byte) (src >>> 16);
-        packetData[writePos++] = (byte) (src >>> 24);
+        INT_VIEW.set(packetData, writePos, src);
+        writePos += 4;
     }
 
     /**
@@ -184,11 +256,9 @@ public class Packet {
      */
     public void encode(float src) {
         ensureCapacity(4);
-        int data = Float.floatToIntBits(src);
-        packetData[writePos++] = (byte) (data & 0xff);
-        packetData[writePos++] = (byte) ((data >> 8) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 16) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 24) & 0xff);
+        // Not a float view, which would write NaNs with their raw bits
+        INT_VIEW.set(packetData, writePos, Float.floatToIntBits(src));
+        writePos += 4;
     }
 
     /**
@@ -198,14 +268,8 @@ public class Packet {
      */
     public void encode(long data) {
         ensureCapacity(8);
-        packetData[writePos++] = (byte) (data & 0xff);
-        packetData[writePos++] = (byte) ((data >> 8) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 16) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 24) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 32) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 40) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 48) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 56) & 0xff);
+        LONG_VIEW.set(packetData, writePos, data);
+        writePos += 8;
     }
 
     /**
@@ -215,15 +279,8 @@ public class Packet {
      */
     public void encode(double src) {
         ensureCapacity(8);
-        long data = Double.doubleToRawLongBits(src);
-        packetData[writePos++] = (byte) (data & 0xff);
-        packetData[writePos++] = (byte) ((data >> 8) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 16) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 24) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 32) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 40) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 48) & 0xff);
-        packetData[writePos++] = (byte) ((data >> 56) & 0xff);
+        LONG_VIEW.set(packetData, writePos, Double.doubleToRawLongBits(src));
+        writePos += 8;
     }
 
     /**
@@ -303,26 +360,17 @@ public class Packet {
         if (packetData.length < readPos + 3) {
             return 0;
         }
-        return (0xff & packetData[readPos++])
-                | (0xff & packetData[readPos++]) << 8
-                | (0xff & packetData[readPos++]) << 16
-                | (0xff & packetData[readPos++]) << 24;
+        int data = (int) INT_VIEW.get(packetData, readPos);
+        readPos += 4;
+        return data;
     }
 
     public long decodeLong() {
         if (packetData.length < (readPos + 7)) {
             return 0;
         }
-        long data =
-                (long)
-                        (0xff & packetData[readPos++]
-                                | (long) (0xff & packetData[readPos++]) << 8
-                                | (long) (0xff & packetData[readPos++]) << 16
-                                | (long) (0xff & packetData[readPos++]) << 24
-                                | (long) (0xff & packetData[readPos++]) << 32
-                                | (long) (0xff & packetData[readPos++]) << 40
-                                | (long) (0xff & packetData[readPos++]) << 48
-                                | (long) (0xff & packetData[readPos++]) << 56);
+        long data = (long) LONG_VIEW.get(packetData, readPos);
+        readPos += 8;
         return data;
     }
 
@@ -335,16 +383,8 @@ public class Packet {
         if (packetData.length < (readPos + 7)) {
             return 0;
         }
-        long data =
-                (long)
-                        (0xff & packetData[readPos++]
-                                | (long) (0xff & packetData[readPos++]) << 8
-                                | (long) (0xff & packetData[readPos++]) << 16
-                                | (long) (0xff & packetData[readPos++]) << 24
-                                | (long) (0xff & packetData[readPos++]) << 32
-                                | (long) (0xff & packetData[readPos++]) << 40
-                                | (long) (0xff & packetData[readPos++]) << 48
-                                | (long) (0xff & packetData[readPos++]) << 56);
+        long data = (long) LONG_VIEW.get(packetData, readPos);
+        readPos += 8;
         return Double.longBitsToDouble(data);
     }
 
@@ -358,11 +398,8 @@ public class Packet {
             return 0;
         }
 
-        int data =
-                ((0xff & packetData[readPos++]
-                        | (0xff & packetData[readPos++]) << 8
-                        | (0xff & packetData[readPos++]) << 16
-                        | (0xff & packetData[readPos++]) << 24));
+        int data = (int) INT_VIEW.get(packetData, readPos);
+        readPos += 4;
         return Float.intBitsToFloat(data);
     }
 
@@ -379,16 +416,31 @@ public class Packet {
     }
 
     public void encode(double[] data) {
-        for (double d : data) {
-            encode(d);
-        }
+        int numBytes = data.length * Double.BYTES;
+        ensureCapacity(numBytes);
+        ByteBuffer.wrap(packetData, writePos, numBytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer()
+                .put(data);
+        writePos += numBytes;
     }
 
     public double[] decodeDoubleArray(int len) {
         double[] ret = new double[len];
-        for (int i = 0; i < len; i++) {
-            ret[i] = decodeDouble();
+        int numBytes = len * Double.BYTES;
+        if (packetData.length < readPos + numBytes) {
+            // Not all there, so decode what is one at a time, the same as decodeDouble
+            for (int i = 0; i < len; i++) {
+                ret[i] = decodeDouble();
+            }
+            return ret;
         }
+
+        ByteBuffer.wrap(packetData, readPos, numBytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer()
+                .get(ret);
+        readPos += numBytes;
         return ret;
     }
 
@@ -396,7 +448,9 @@ public class Packet {
         if (packetData.length < readPos + 1) {
             return 0;
         }
-        return (short) ((0xff & packetData[readPos++]) | (0xff & packetData[readPos++]) << 8);
+        short data = (short) SHORT_VIEW.get(packetData, readPos);
+        readPos += 2;
+        return data;
     }
 
     /**
@@ -427,6 +481,61 @@ public class Packet {
         return Optional.empty();
     }
 
+    /**
+     * Decode a list of serializable structs like {@link #decodeList}, but decode into the elements
+     * of an existing list where possible. Extra elements at the end of the existing list are
+     * removed. Lists that can't be modified, such as those from {@link List#of}, are replaced.
+     *
+     * @param <T>
+     * @param serde
+     * @param reuse The list to decode into, or null
+     */
+    public <T extends PhotonStructSerializable<T>> List<T> decodeListInto(
+            PacketSerde<T> serde, List<T> reuse) {
+        if (!(reuse instanceof ArrayList)) {
+            return decodeList(serde);
+        }
+
+        byte length = decodeByte();
+        int oldSize = reuse.size();
+
+        for (int i = 0; i < length; i++) {
+            if (i < oldSize) {
+                reuse.set(i, serde.unpackInto(this, reuse.get(i)));
+            } else {
+                reuse.add(serde.unpack(this));
+            }
+        }
+        for (int i = oldSize - 1; i >= length; i--) {
+            reuse.remove(i);
+        }
+
+        return reuse;
+    }
+
+    /**
+     * Decode an optional serializable struct like {@link #decodeOptional}, but decode into the
+     * value already held by {@code reuse} if there is one.
+     *
+     * @param <T>
+     * @param serde
+     * @param reuse The optional to decode into, or null
+     */
+    public <T extends PhotonStructSerializable<T>> Optional<T> decodeOptionalInto(
+            PacketSerde<T> serde, Optional<T> reuse) {
+        var present = decodeBoolean();
+        if (!present) {
+            return Optional.empty();
+        }
+        if (reuse == null || reuse.isEmpty()) {
+            return Optional.of(serde.unpack(this));
+        }
+
+        var value = reuse.get();
+        var decoded = serde.unpackInto(this, value);
+        return decoded == value ? reuse : Optional.of(decoded);
+    }
+
     public List<Short> decodeShortList() {
         byte length = decodeByte();
 
@@ -440,6 +549,27 @@ public class Packet {
         return ret;
     }
 
+    /**
+     * Decode a list of shorts like {@link #decodeShortList}, reusing {@code reuse} if it can be
+     * modified.
+     *
+     * @param reuse The list to decode into, or null
+     */
+    public List<Short> decodeShortListInto(List<Short> reuse) {
+        if (!(reuse instanceof ArrayList)) {
+            return decodeShortList();
+        }
+
+        byte length = decodeByte();
+
+        reuse.clear();
+        for (int i = 0; i < length; i++) {
+            reuse.add(decodeShort());
+        }
+
+        return reuse;
+    }
+
     public <T extends PhotonStructSerializable<T>> T decode(PhotonStructSerializable<T> t) {
         return t.getSerde().unpack(this);
     }
@@ -22,10 +22,48 @@ import edu.wpi.first.util.struct.Struct;
 public interface PacketSerde<T> {
     int getMaxByteSize();
 
+    /**
+     * Gets the exact number of bytes {@link #pack} will write for a value, so it can be packed into a
+     * buffer of the right size up front.
+     *
+     * <p>The default packs the value into a scratch packet and measures it. Generated serdes override
+     * this with a direct calculation that doesn't pack anything.
+     *
+     * @param value The value to be packed
+     * @return Size in bytes
+     */
+    default int getByteSize(T value) {
+        var packet = new Packet(0);
+        pack(packet, value);
+        return packet.getWritePos();
+    }
+
     void pack(Packet packet, T value);
 
     T unpack(Packet packet);
 
+    /**
+     * Unpacks a value like {@link #unpack}, but decodes into an existing object where possible, so
+     * that reading results every loop doesn't allocate a fresh object graph each time.
+     *
+     * @param packet The packet to read from
+     * @param reuse A value previously returned by this serde to overwrite, or null
+     * @return The decoded value, which is usually {@code reuse} itself
+     */
+    default T unpackInto(Packet packet, T reuse) {
+        return unpack(packet);
+    }
+
+    /**
+     * Moves the packet's read position past one packed value. Generated serdes do this without
+     * decoding the value, reading only the lengths of variable length arrays.
+     *
+     * @param packet The packet to read from
+     */
+    default void skip(Packet packet) {
+        unpack(packet);
+    }
+
     /** The name of this struct (eg "PhotonTrackedTarget") */
     String getTypeName();
 
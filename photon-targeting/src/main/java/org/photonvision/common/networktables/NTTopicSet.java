@@ -17,6 +17,7 @@
 
 package org.photonvision.common.networktables;
 
+import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.networktables.BooleanPublisher;
 import edu.wpi.first.networktables.BooleanSubscriber;
@@ -66,6 +67,12 @@ public class NTTopicSet {
     public DoublePublisher bestTargetPosX;
     public DoublePublisher bestTargetPosY;
 
+    // Visual odometry, for pipelines that produce it. The accumulated camera pose and the motion since
+    // the previous frame, both with translations in meters. Translation is only accumulated once
+    // AprilTag fixes have given VO a scale; before that it stays zero and only rotation is tracked.
+    public StructPublisher<Pose3d> voPosePublisher;
+    public StructPublisher<Transform3d> voMotionPublisher;
+
     // Heartbeat
     public IntegerTopic heartbeatTopic;
     public IntegerPublisher heartbeatPublisher;
@@ -113,6 +120,9 @@ public class NTTopicSet {
         bestTargetPosX = subTable.getDoubleTopic("targetPixelsX").publish();
         bestTargetPosY = subTable.getDoubleTopic("targetPixelsY").publish();
 
+        voPosePublisher = subTable.getStructTopic("voPose", Pose3d.struct).publish();
+        voMotionPublisher = subTable.getStructTopic("voMotion", Transform3d.struct).publish();
+
         heartbeatTopic = subTable.getIntegerTopic("heartbeat");
         heartbeatPublisher = heartbeatTopic.publish();
 
@@ -140,6 +150,9 @@ public class NTTopicSet {
         if (bestTargetPosX != null) bestTargetPosX.close();
         if (bestTargetPosY != null) bestTargetPosY.close();
 
+        if (voPosePublisher != null) voPosePublisher.close();
+        if (voMotionPublisher != null) voMotionPublisher.close();
+
         if (heartbeatPublisher != null) heartbeatPublisher.close();
 
         if (cameraIntrinsicsPublisher != null) cameraIntrinsicsPublisher.close();
@@ -29,6 +29,9 @@ public class PacketPublisher<T> implements AutoCloseable {
     public final RawPublisher publisher;
     private final PacketSerde<T> photonStruct;
 
+    // Reused for every value we publish, NT copies the bytes out when we set
+    private final Packet packet = new Packet(0);
+
     public PacketPublisher(RawPublisher publisher, PacketSerde<T> photonStruct) {
         this.publisher = publisher;
         this.photonStruct = photonStruct;
@@ -46,14 +49,14 @@ public class PacketPublisher<T> implements AutoCloseable {
         addSchemaImpl(photonStruct, new HashSet<>());
     }
 
-    public void set(T value, int byteSize) {
-        var packet = new Packet(byteSize);
+    public synchronized void set(T value, int byteSize) {
+        packet.reset(byteSize);
         photonStruct.pack(packet, value);
-        publisher.set(packet.getWrittenDataCopy());
+        publisher.set(packet.getBuffer(), 0, packet.getWritePos());
     }
 
     public void set(T value) {
-        set(value, photonStruct.getMaxByteSize());
+        set(value, photonStruct.getByteSize(value));
     }
 
     @Override
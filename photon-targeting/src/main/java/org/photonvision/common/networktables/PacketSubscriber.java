@@ -20,6 +20,7 @@ package org.photonvision.common.networktables;
 import edu.wpi.first.networktables.RawSubscriber;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import org.photonvision.common.dataflow.structures.Packet;
 import org.photonvision.common.dataflow.structures.PacketSerde;
 
@@ -43,6 +44,9 @@ public class PacketSubscriber<T> implements AutoCloseable {
 
     private final Packet packet = new Packet(1);
 
+    // Values handed out by the last call to getAllChanges(List), decoded into on the next call
+    private final List<T> reusableValues = new ArrayList<>();
+
     /**
      * Create a PacketSubscriber
      *
@@ -111,4 +115,55 @@ public class PacketSubscriber<T> implements AutoCloseable {
 
         return ret;
     }
+
+    /**
+     * Decode all changes since the last call to readQueue into {@code out}, which is cleared first.
+     * Unlike {@link #getAllChanges()}, the values are decoded into the objects handed out by the
+     * previous call to this method, so steady-state reads allocate (almost) nothing. Values from
+     * the previous call are overwritten, so copy anything that needs to be kept around.
+     *
+     * @param out The list to fill with the decoded values, oldest first
+     */
+    public void getAllChanges(List<T> out) {
+        out.clear();
+
+        var changes = subscriber.readQueue();
+        for (var change : changes) {
+            packet.clear();
+            packet.setData(change.value);
+            if (packet.getSize() < 1) {
+                continue;
+            }
+
+            int i = out.size();
+            if (i < reusableValues.size()) {
+                reusableValues.set(i, serde.unpackInto(packet, reusableValues.get(i)));
+            } else {
+                reusableValues.add(serde.unpack(packet));
+            }
+            out.add(reusableValues.get(i));
+        }
+    }
+
+    /**
+     * Get all changes since the last call to readQueue, each handed to {@code decoder} in its own
+     * packet instead of being unpacked with the serde. This lets callers decode into views that keep
+     * referring to the packet, such as lazily decoded results.
+     *
+     * @param decoder Makes a value from a packet positioned at the start of the data
+     * @return The decoded values, oldest first
+     */
+    public <U> List<U> decodeAllChanges(Function<Packet, U> decoder) {
+        var changes = subscriber.readQueue();
+
+        List<U> ret = new ArrayList<>(changes.length);
+        for (var change : changes) {
+            if (change.value.length < 1) {
+                continue;
+            }
+            ret.add(decoder.apply(new Packet(change.value)));
+        }
+
+        return ret;
+    }
 }
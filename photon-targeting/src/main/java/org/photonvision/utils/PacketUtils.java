@@ -96,6 +96,42 @@ public class PacketUtils {
         return new Transform3d(unpackTranslation3d(packet), unpackRotation3d(packet));
     }
 
+    /**
+     * Unpacks a Transform3d like {@link #unpackTransform3d}. Transform3d is immutable, so this can
+     * only save the allocation by handing back {@code reuse} when it already holds the packed
+     * value, such as for a target that hasn't moved.
+     *
+     * @param packet The packet to read from
+     * @param reuse The previously decoded transform, or null
+     * @return The decoded transform
+     */
+    public static Transform3d unpackTransform3dInto(Packet packet, Transform3d reuse) {
+        double x = packet.decodeDouble();
+        double y = packet.decodeDouble();
+        double z = packet.decodeDouble();
+        double qw = packet.decodeDouble();
+        double qx = packet.decodeDouble();
+        double qy = packet.decodeDouble();
+        double qz = packet.decodeDouble();
+
+        if (reuse != null) {
+            var translation = reuse.getTranslation();
+            var quaternion = reuse.getRotation().getQuaternion();
+            if (translation.getX() == x
+                    && translation.getY() == y
+                    && translation.getZ() == z
+                    && quaternion.getW() == qw
+                    && quaternion.getX() == qx
+                    && quaternion.getY() == qy
+                    && quaternion.getZ() == qz) {
+                return reuse;
+            }
+        }
+
+        return new Transform3d(
+                new Translation3d(x, y, z), new Rotation3d(new Quaternion(qw, qx, qy, qz)));
+    }
+
     public static void packPose2d(Packet packet, Pose2d pose) {
         packTranslation2d(packet, pose.getTranslation());
         packRotation2d(packet, pose.getRotation());
@@ -17,13 +17,19 @@
 
 package org.photonvision;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import edu.wpi.first.math.geometry.*;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.common.dataflow.structures.PacketSerde;
+import org.photonvision.struct.LazyPhotonPipelineResult;
 import org.photonvision.targeting.MultiTargetPNPResult;
 import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
@@ -40,11 +46,42 @@ class PacketTest {
         packet.encode(corner);
     }
 
+    @Test
+    void primitiveWireFormat() {
+        var packet = new Packet(1);
+        packet.encode((short) 0x0102);
+        packet.encode(0x01020304);
+        packet.encode(0x0102030405060708L);
+        packet.encode(1.5f);
+        packet.encode(new double[] {-2.0, 0.5});
+
+        // Everything is little-endian
+        // spotless:off
+        assertArrayEquals(
+                new byte[] {
+                    0x02, 0x01,
+                    0x04, 0x03, 0x02, 0x01,
+                    0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01,
+                    0x00, 0x00, (byte) 0xc0, 0x3f,
+                    0, 0, 0, 0, 0, 0, 0, (byte) 0xc0,
+                    0, 0, 0, 0, 0, 0, (byte) 0xe0, 0x3f
+                },
+                packet.getWrittenDataCopy());
+        // spotless:on
+
+        assertEquals((short) 0x0102, packet.decodeShort());
+        assertEquals(0x01020304, packet.decodeInt());
+        assertEquals(0x0102030405060708L, packet.decodeLong());
+        assertEquals(1.5f, packet.decodeFloat());
+        assertArrayEquals(new double[] {-2.0, 0.5}, packet.decodeDoubleArray(2));
+    }
+
     @Test
     void pipelineResultSerde() {
         var ret1 = new PhotonPipelineResult(1, 2, 3, 1024, List.of());
         var p1 = new Packet(10);
         PhotonPipelineResult.photonStruct.pack(p1, ret1);
+        assertEquals(p1.getWritePos(), PhotonPipelineResult.photonStruct.getByteSize(ret1));
         var unpackedRet1 = PhotonPipelineResult.photonStruct.unpack(p1);
         assertEquals(ret1, unpackedRet1);
 
@@ -99,6 +136,7 @@ class PacketTest {
                                                 new TargetCorner(7, 8)))));
         var p2 = new Packet(10);
         PhotonPipelineResult.photonStruct.pack(p2, ret2);
+        assertEquals(p2.getWritePos(), PhotonPipelineResult.photonStruct.getByteSize(ret2));
         var unpackedRet2 = PhotonPipelineResult.photonStruct.unpack(p2);
         assertEquals(ret2, unpackedRet2);
 
@@ -158,7 +196,170 @@ class PacketTest {
                                         List.of((short) 1, (short) 2, (short) 3))));
         var p3 = new Packet(10);
         PhotonPipelineResult.photonStruct.pack(p3, ret3);
+        assertEquals(p3.getWritePos(), PhotonPipelineResult.photonStruct.getByteSize(ret3));
         var unpackedRet3 = PhotonPipelineResult.photonStruct.unpack(p3);
         assertEquals(ret3, unpackedRet3);
     }
+
+    @Test
+    void pipelineResultUnpackInto() {
+        var target =
+                new PhotonTrackedTarget(
+                        3.0,
+                        -4.0,
+                        9.0,
+                        4.0,
+                        2,
+                        -1,
+                        -1f,
+                        new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)),
+                        new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)),
+                        0.25,
+                        List.of(new TargetCorner(1, 2), new TargetCorner(3, 4)),
+                        List.of(new TargetCorner(1, 2), new TargetCorner(3, 4), new TargetCorner(5, 6)));
+        var withMultitag =
+                new PhotonPipelineResult(
+                        1,
+                        2,
+                        3,
+                        1024,
+                        List.of(target, target),
+                        Optional.of(
+                                new MultiTargetPNPResult(
+                                        new PnpResult(
+                                                new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)), 0.1),
+                                        List.of((short) 1, (short) 2, (short) 3))));
+        var withoutMultitag = new PhotonPipelineResult(4, 5, 6, 1024, List.of(target));
+
+        var serde = PhotonPipelineResult.photonStruct;
+        var holder = serde.unpack(pack(withMultitag));
+        var firstTarget = holder.targets.get(0);
+
+        // Fewer targets and no multitag result
+        assertSame(holder, serde.unpackInto(pack(withoutMultitag), holder));
+        assertEquals(withoutMultitag, holder);
+        assertSame(firstTarget, holder.targets.get(0));
+
+        // And back again
+        assertSame(holder, serde.unpackInto(pack(withMultitag), holder));
+        assertEquals(withMultitag, holder);
+        assertSame(firstTarget, holder.targets.get(0));
+
+        // Nothing to reuse
+        assertEquals(withMultitag, serde.unpackInto(pack(withMultitag), null));
+    }
+
+    @Test
+    void lazyPipelineResult() {
+        var target =
+                new PhotonTrackedTarget(
+                        3.0,
+                        -4.0,
+                        9.0,
+                        4.0,
+                        2,
+                        -1,
+                        -1f,
+                        new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)),
+                        new Transform3d(new Translation3d(4, 2, 3), new Rotation3d(1, 5, 3)),
+                        0.25,
+                        List.of(new TargetCorner(1, 2), new TargetCorner(3, 4)),
+                        List.of(new TargetCorner(1, 2), new TargetCorner(3, 4), new TargetCorner(5, 6)));
+        var otherTarget =
+                new PhotonTrackedTarget(
+                        1.0,
+                        2.0,
+                        3.0,
+                        4.0,
+                        7,
+                        -1,
+                        -1f,
+                        new Transform3d(),
+                        new Transform3d(),
+                        0.5,
+                        List.of(),
+                        List.of(new TargetCorner(5, 6)));
+        var result =
+                new PhotonPipelineResult(
+                        1,
+                        2,
+                        3,
+                        1024,
+                        List.of(target, otherTarget, target),
+                        Optional.of(
+                                new MultiTargetPNPResult(
+                                        new PnpResult(
+                                                new Transform3d(new Translation3d(1, 2, 3), new Rotation3d(1, 2, 3)), 0.1),
+                                        List.of((short) 2, (short) 7))));
+
+        var packet = pack(result);
+        var lazy = new LazyPhotonPipelineResult(packet);
+        // Skipping the targets must land exactly at the end
+        assertEquals(packet.getWritePos(), packet.getReadPos());
+
+        assertEquals(result.metadata, lazy.metadata);
+        assertEquals(result.multitagResult, lazy.multitagResult);
+        assertEquals(result.getTimestampSeconds(), lazy.getTimestampSeconds());
+        assertTrue(lazy.hasTargets());
+        assertEquals(3, lazy.getTargetCount());
+        assertEquals(otherTarget, lazy.getTarget(1));
+        assertSame(lazy.getTarget(1), lazy.getTarget(1));
+        assertEquals(result, lazy.toPhotonPipelineResult());
+
+        // And skipping a whole result agrees with unpacking it
+        packet.setReadPos(0);
+        PhotonPipelineResult.photonStruct.skip(packet);
+        assertEquals(packet.getWritePos(), packet.getReadPos());
+
+        var empty = new LazyPhotonPipelineResult(pack(new PhotonPipelineResult()));
+        assertFalse(empty.hasTargets());
+        assertEquals(0, empty.getTargetCount());
+        assertTrue(empty.multitagResult.isEmpty());
+    }
+
+    @Test
+    void defaultByteSizeMeasuresPack() {
+        // A hand-written serde that doesn't calculate its own size
+        var serde =
+                new PacketSerde<TargetCorner>() {
+                    @Override
+                    public int getMaxByteSize() {
+                        return TargetCorner.photonStruct.getMaxByteSize();
+                    }
+
+                    @Override
+                    public void pack(Packet packet, TargetCorner value) {
+                        TargetCorner.photonStruct.pack(packet, value);
+                    }
+
+                    @Override
+                    public TargetCorner unpack(Packet packet) {
+                        return TargetCorner.photonStruct.unpack(packet);
+                    }
+
+                    @Override
+                    public String getTypeName() {
+                        return TargetCorner.photonStruct.getTypeName();
+                    }
+
+                    @Override
+                    public String getSchema() {
+                        return TargetCorner.photonStruct.getSchema();
+                    }
+
+                    @Override
+                    public String getInterfaceUUID() {
+                        return TargetCorner.photonStruct.getInterfaceUUID();
+                    }
+                };
+
+        var corner = new TargetCorner(1, 2);
+        assertEquals(TargetCorner.photonStruct.getByteSize(corner), serde.getByteSize(corner));
+    }
+
+    private static Packet pack(PhotonPipelineResult result) {
+        var packet = new Packet(PhotonPipelineResult.photonStruct.getByteSize(result));
+        PhotonPipelineResult.photonStruct.pack(packet, result);
+        return packet;
+    }
 }